@@ -0,0 +1,31 @@
+package com.authorization.life.listener;
+
+import com.authorization.life.security.service.RegisteredClientService;
+import com.authorization.redis.start.listener.RedisSubscription;
+import com.authorization.utils.contsant.SecurityConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订阅客户端信息变更频道，清理本地缓存的客户端信息
+ */
+@Slf4j
+@Component
+public class ClientChangedSubscriber implements RedisSubscription {
+
+    @Autowired
+    private RegisteredClientService registeredClientService;
+
+    @Override
+    public void subscribe(String topic, String clientId) {
+        log.info("客户端信息变更, 清理本地缓存, clientId: [{}]", clientId);
+        registeredClientService.invalidate(clientId);
+    }
+
+    @Override
+    public String topicName() {
+        return SecurityConstants.CLIENT_CHANGED_TOPIC;
+    }
+
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.authorization.life.entity.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -16,4 +17,12 @@ public interface UserMapper extends BaseMapper<User> {
 
     List<User> page(User user);
 
+    /**
+     * 登录查询使用，同时查询用户所属的用户组编码
+     *
+     * @param username 手机号/邮箱
+     * @return 用户信息，userGroups为用户组编码
+     */
+    User selectWithGroupsByUsername(@Param("username") String username);
+
 }
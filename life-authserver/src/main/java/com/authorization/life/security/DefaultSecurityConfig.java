@@ -9,9 +9,9 @@ import com.authorization.core.security.handle.TokenInformationExpiredStrategy;
 import com.authorization.life.security.handler.sso.SsoFailureHandler;
 import com.authorization.life.security.handler.sso.SsoLogoutHandle;
 import com.authorization.life.security.handler.sso.SsoSuccessHandler;
+import com.authorization.life.security.service.UserLockWriter;
 import com.authorization.life.security.sso.CaptchaAuthenticationDetailsSource;
 import com.authorization.life.security.sso.UsernamePasswordAuthenticationProvider;
-import com.authorization.life.service.UserService;
 import com.authorization.redis.start.service.StringRedisService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -40,7 +40,7 @@ public class DefaultSecurityConfig {
     @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
-    private UserService userService;
+    private UserLockWriter userLockWriter;
     @Autowired
     private OAuth2AuthorizationService authorizationService;
     @Autowired
@@ -143,7 +143,7 @@ public class DefaultSecurityConfig {
     @Bean
     public AuthenticationProvider usernamePasswordProvider() {
         return new UsernamePasswordAuthenticationProvider(userDetailsService, passwordEncoder,
-                stringRedisService, userService, registeredClientService);
+                stringRedisService, userLockWriter, registeredClientService);
     }
 
 }
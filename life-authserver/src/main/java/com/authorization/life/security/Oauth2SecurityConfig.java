@@ -21,7 +21,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
-import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
@@ -131,7 +130,7 @@ public class Oauth2SecurityConfig {
      * @return RegisteredClientRepository
      */
     @Bean
-    public RegisteredClientRepository registeredClientRepository(OauthClientService clientService) {
+    public RegisteredClientService registeredClientRepository(OauthClientService clientService) {
         return new RegisteredClientService(clientService);
     }
 
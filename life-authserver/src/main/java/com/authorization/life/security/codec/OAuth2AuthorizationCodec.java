@@ -0,0 +1,159 @@
+package com.authorization.life.security.codec;
+
+import com.authorization.redis.start.serializer.BinaryCodecs;
+import com.authorization.redis.start.serializer.RedisValueCodec;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OAuth2Authorization 的紧凑二进制格式，逐个字段写入，替代jdk序列化。
+ * <p>
+ * 格式(版本1)：id、客户端id、用户名、授权类型、授权范围、token数量、[token类型、token字段、token元数据]...、属性。
+ * token的元数据及授权信息的属性使用{@link BinaryCodecs#writeMap}写入，其中的 Principal、OAuth2AuthorizationRequest 等对象仍为jdk序列化。
+ */
+@Component
+public class OAuth2AuthorizationCodec implements RedisValueCodec<OAuth2Authorization> {
+
+    public static final byte CODEC_ID = 1;
+    private static final byte VERSION = 1;
+
+    private static final byte AUTHORIZATION_CODE = 1;
+    private static final byte ACCESS_TOKEN = 2;
+    private static final byte REFRESH_TOKEN = 3;
+    private static final byte OIDC_ID_TOKEN = 4;
+
+    @Override
+    public byte codecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public Class<OAuth2Authorization> type() {
+        return OAuth2Authorization.class;
+    }
+
+    @Override
+    public void write(OAuth2Authorization authorization, DataOutputStream out) throws IOException {
+        BinaryCodecs.writeString(out, authorization.getId());
+        BinaryCodecs.writeString(out, authorization.getRegisteredClientId());
+        BinaryCodecs.writeString(out, authorization.getPrincipalName());
+        BinaryCodecs.writeString(out, authorization.getAuthorizationGrantType().getValue());
+        BinaryCodecs.writeStrings(out, authorization.getAuthorizedScopes());
+
+        List<OAuth2Authorization.Token<?>> tokens = new ArrayList<>(4);
+        addIfPresent(tokens, authorization.getToken(OAuth2AuthorizationCode.class));
+        addIfPresent(tokens, authorization.getToken(OAuth2AccessToken.class));
+        addIfPresent(tokens, authorization.getToken(OAuth2RefreshToken.class));
+        addIfPresent(tokens, authorization.getToken(OidcIdToken.class));
+        out.writeByte(tokens.size());
+        for (OAuth2Authorization.Token<?> token : tokens) {
+            writeToken(out, token);
+        }
+        BinaryCodecs.writeMap(out, authorization.getAttributes());
+    }
+
+    @Override
+    public OAuth2Authorization read(DataInputStream in, byte version) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unsupported OAuth2Authorization codec version " + version);
+        }
+        String id = BinaryCodecs.readString(in);
+        OAuth2Authorization.Builder builder = new OAuth2Authorization.Builder(BinaryCodecs.readString(in)) {
+        };
+        builder.id(id)
+                .principalName(BinaryCodecs.readString(in))
+                .authorizationGrantType(new AuthorizationGrantType(BinaryCodecs.readString(in)));
+        Set<String> authorizedScopes = BinaryCodecs.readStringSet(in);
+        if (authorizedScopes != null) {
+            builder.authorizedScopes(authorizedScopes);
+        }
+        int tokenCount = in.readByte();
+        for (int i = 0; i < tokenCount; i++) {
+            readToken(in, builder);
+        }
+        Map<String, Object> attributes = BinaryCodecs.readMap(in);
+        if (attributes != null) {
+            builder.attributes(attrs -> attrs.putAll(attributes));
+        }
+        return builder.build();
+    }
+
+    private static void addIfPresent(List<OAuth2Authorization.Token<?>> tokens, OAuth2Authorization.Token<?> token) {
+        if (token != null) {
+            tokens.add(token);
+        }
+    }
+
+    private static void writeToken(DataOutputStream out, OAuth2Authorization.Token<?> token) throws IOException {
+        OAuth2Token oAuth2Token = token.getToken();
+        if (oAuth2Token instanceof OAuth2AuthorizationCode) {
+            out.writeByte(AUTHORIZATION_CODE);
+        } else if (oAuth2Token instanceof OAuth2AccessToken) {
+            out.writeByte(ACCESS_TOKEN);
+        } else if (oAuth2Token instanceof OAuth2RefreshToken) {
+            out.writeByte(REFRESH_TOKEN);
+        } else {
+            out.writeByte(OIDC_ID_TOKEN);
+        }
+        BinaryCodecs.writeString(out, oAuth2Token.getTokenValue());
+        BinaryCodecs.writeInstant(out, oAuth2Token.getIssuedAt());
+        BinaryCodecs.writeInstant(out, oAuth2Token.getExpiresAt());
+        if (oAuth2Token instanceof OAuth2AccessToken) {
+            BinaryCodecs.writeStrings(out, ((OAuth2AccessToken) oAuth2Token).getScopes());
+        } else if (oAuth2Token instanceof OidcIdToken) {
+            BinaryCodecs.writeMap(out, ((OidcIdToken) oAuth2Token).getClaims());
+        }
+        BinaryCodecs.writeMap(out, token.getMetadata());
+    }
+
+    private static void readToken(DataInputStream in, OAuth2Authorization.Builder builder) throws IOException {
+        byte tokenType = in.readByte();
+        String tokenValue = BinaryCodecs.readString(in);
+        Instant issuedAt = BinaryCodecs.readInstant(in);
+        Instant expiresAt = BinaryCodecs.readInstant(in);
+        OAuth2Token token;
+        switch (tokenType) {
+            case AUTHORIZATION_CODE:
+                token = new OAuth2AuthorizationCode(tokenValue, issuedAt, expiresAt);
+                break;
+            case ACCESS_TOKEN:
+                token = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue, issuedAt, expiresAt,
+                        BinaryCodecs.readStringSet(in));
+                break;
+            case REFRESH_TOKEN:
+                token = new OAuth2RefreshToken(tokenValue, issuedAt, expiresAt);
+                break;
+            case OIDC_ID_TOKEN:
+                token = new OidcIdToken(tokenValue, issuedAt, expiresAt, BinaryCodecs.readMap(in));
+                break;
+            default:
+                throw new IOException("Unknown token type " + tokenType);
+        }
+        Map<String, Object> metadata = BinaryCodecs.readMap(in);
+        builder.token(token, tokenMetadata -> {
+            if (metadata != null) {
+                tokenMetadata.putAll(metadata);
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.authorization.life.security.codec;
+
+import com.authorization.redis.start.serializer.BinaryCodecs;
+import com.authorization.redis.start.serializer.RedisValueCodec;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsent;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * OAuth2AuthorizationConsent 的紧凑二进制格式，替代jdk序列化。
+ * <p>
+ * 格式(版本1)：客户端id、用户名、权限集合。
+ */
+@Component
+public class OAuth2AuthorizationConsentCodec implements RedisValueCodec<OAuth2AuthorizationConsent> {
+
+    public static final byte CODEC_ID = 2;
+    private static final byte VERSION = 1;
+
+    @Override
+    public byte codecId() {
+        return CODEC_ID;
+    }
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public Class<OAuth2AuthorizationConsent> type() {
+        return OAuth2AuthorizationConsent.class;
+    }
+
+    @Override
+    public void write(OAuth2AuthorizationConsent consent, DataOutputStream out) throws IOException {
+        BinaryCodecs.writeString(out, consent.getRegisteredClientId());
+        BinaryCodecs.writeString(out, consent.getPrincipalName());
+        List<String> authorities = new ArrayList<>(consent.getAuthorities().size());
+        for (GrantedAuthority authority : consent.getAuthorities()) {
+            authorities.add(authority.getAuthority());
+        }
+        BinaryCodecs.writeStrings(out, authorities);
+    }
+
+    @Override
+    public OAuth2AuthorizationConsent read(DataInputStream in, byte version) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unsupported OAuth2AuthorizationConsent codec version " + version);
+        }
+        OAuth2AuthorizationConsent.Builder builder = OAuth2AuthorizationConsent.withId(BinaryCodecs.readString(in), BinaryCodecs.readString(in));
+        Set<String> authorities = BinaryCodecs.readStringSet(in);
+        if (authorities != null) {
+            authorities.forEach(authority -> builder.authority(new SimpleGrantedAuthority(authority)));
+        }
+        return builder.build();
+    }
+}
@@ -6,6 +6,7 @@ import com.authorization.core.entity.UserDetail;
 import com.authorization.core.entity.UserHelper;
 import com.authorization.core.security.SecurityConstant;
 import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.utils.contsant.SecurityConstants;
 import com.authorization.utils.kvp.KvpFormat;
 import com.authorization.utils.result.Res;
 import lombok.extern.slf4j.Slf4j;
@@ -51,9 +52,12 @@ public class SsoLogoutHandle implements LogoutHandler {
         if (Objects.nonNull(userDetail)) {
             String userToken = userDetail.getToken();
             log.debug("当前登录用户的token-是：" + userToken);
-            String cacheUserToken = KvpFormat.of(SecurityConstant.USER_DETAIL).add("token", userToken).format();
-            stringRedisService.delKey(cacheUserToken);
-            stringRedisService.delKey(KvpFormat.of(SecurityConstant.TOKEN_STORE).add("userId", userDetail.getUserId().toString()).format());
+            // 与 CustomizerOAuth2Token 中存储用户信息的key保持一致，删除后通知网关等节点清理本地缓存的用户信息，一次发送
+            stringRedisService.batch()
+                    .delKey(SecurityConstants.getUserTokenKey(userToken),
+                            KvpFormat.of(SecurityConstant.TOKEN_STORE).add("userId", userDetail.getUserId().toString()).format())
+                    .convertAndSend(SecurityConstants.USER_DETAIL_INVALID_TOPIC, userToken)
+                    .execute();
         }
         SecurityContextHolder.clearContext();
         String token = request.getHeader(HttpHeaders.AUTHORIZATION);
@@ -6,9 +6,14 @@ import cn.hutool.crypto.digest.DigestUtil;
 import com.authorization.core.security.SecurityConstant;
 import com.authorization.redis.start.service.RedisConstant;
 import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.utils.contsant.SecurityConstants;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2RefreshToken;
@@ -20,14 +25,23 @@ import org.springframework.security.oauth2.server.authorization.OAuth2Authorizat
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.util.Assert;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 使用redis进行缓存  OAuth2Authorization
+ * <p>
+ * 保存与删除授权信息时，授权信息及其4个类型token的索引在一个lua脚本中完成，一次网络往返且原子的写入，
+ * 不会出现授权信息已写入而索引未写入的中间状态。
+ * <p>
+ * 每个token对应一个索引：SHA-256(token)为key，token类型:授权id为value，不区分token类型，
+ * 因此无论是否指定token类型，根据token查询授权信息都只需要查询索引及授权信息两次。
  */
 @Slf4j
 public final class RedisOAuth2AuthorizationService implements OAuth2AuthorizationService {
@@ -35,9 +49,51 @@ public final class RedisOAuth2AuthorizationService implements OAuth2Authorizatio
     private static final String AUTHORIZATION = SecurityConstant.AUTHORIZATION;
     public static final String UNDERSCORE = "_";
     private final static String AUTHORIZATION_UNDERSCORE = AUTHORIZATION + UNDERSCORE;
+    private final static String TOKEN_INDEX = AUTHORIZATION_UNDERSCORE + "token" + UNDERSCORE;
+    private final static String INDEX_SEPARATOR = ":";
+
+    /**
+     * 保存授权信息及token索引
+     * <p>
+     * KEYS[1]: 授权信息key，KEYS[2..n]: token索引key；ARGV[1]: 序列化后的授权信息，ARGV[2]: 过期时长，单位：秒，ARGV[3..n+1]: token索引的值
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) " +
+                    "for i = 2, #KEYS do " +
+                    "redis.call('SET', KEYS[i], ARGV[i + 1], 'EX', ARGV[2]) " +
+                    "end " +
+                    "return #KEYS", Long.class);
+    /**
+     * 删除授权信息及token索引，并通知网关等节点清理本地缓存的用户信息
+     * <p>
+     * KEYS[1]: 授权信息key，KEYS[2..n]: token索引key；ARGV[1]: 通知的频道，ARGV[2]: 用户token，为空时不通知
+     */
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "local removed = redis.call('DEL', unpack(KEYS)) " +
+                    "if ARGV[2] ~= '' then " +
+                    "redis.call('PUBLISH', ARGV[1], ARGV[2]) " +
+                    "end " +
+                    "return removed", Long.class);
+    /**
+     * 记录旧索引的过期时间，升级后第一个访问旧索引的节点写入，此后各节点及重启后均使用同一个时间，不设置过期时间
+     */
+    private final static String LEGACY_INDEX_EXPIRE_AT = AUTHORIZATION_UNDERSCORE + "legacy_index_expire_at";
+    /**
+     * 不存在时写入旧索引的过期时间，返回已保存的过期时间
+     * <p>
+     * KEYS[1]: 过期时间的key；ARGV[1]: 不存在时写入的过期时间，毫秒时间戳
+     */
+    private static final RedisScript<String> LEGACY_INDEX_EXPIRE_AT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[1], ARGV[1], 'NX') " +
+                    "return redis.call('GET', KEYS[1])", String.class);
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final StringRedisService stringRedisService;
+    /**
+     * 升级前写入的 token类型+MD5(token) 索引的过期时间，此后不再查询旧的索引；第一次查询旧索引时从redis中读取
+     */
+    private volatile long legacyIndexExpireAt;
 
     public RedisOAuth2AuthorizationService(RedisTemplate<String, Object> redisTemplate, StringRedisService stringRedisService) {
         this.redisTemplate = redisTemplate;
@@ -48,69 +104,85 @@ public final class RedisOAuth2AuthorizationService implements OAuth2Authorizatio
     @Override
     public void save(OAuth2Authorization authorization) {
         Assert.notNull(authorization, "authorization cannot be null");
-        String authId = AUTHORIZATION_UNDERSCORE + authorization.getId();
-        redisTemplate.opsForValue().set(authId, authorization, 1, TimeUnit.DAYS);
-        //将授权信息以token为key存入缓存
-        saveTokenToCache(authorization);
+        //授权信息与以token为key的索引一起写入缓存，过期时间为一天
+        Map<String, String> tokenIndexes = getTokenIndexes(authorization);
+        List<String> keys = new ArrayList<>(tokenIndexes.size() + 1);
+        keys.add(AUTHORIZATION_UNDERSCORE + authorization.getId());
+        keys.addAll(tokenIndexes.keySet());
+        List<byte[]> args = new ArrayList<>(tokenIndexes.size() + 2);
+        args.add(serializeValue(authorization));
+        args.add(toBytes(String.valueOf(RedisConstant.DEFAULT_EXPIRE)));
+        for (String indexValue : tokenIndexes.values()) {
+            args.add(toBytes(indexValue));
+        }
+        redisTemplate.execute(SAVE_SCRIPT, RedisSerializer.byteArray(), LONG_SERIALIZER, keys, args.toArray());
     }
 
-    private void saveTokenToCache(@NotNull OAuth2Authorization authorization) {
+    /**
+     * 获取授权信息中4个类型token的索引，SHA-256(token)为key，token类型:授权id为value
+     *
+     * @param authorization 授权信息
+     * @return 不为空的token对应的索引key及value
+     */
+    private Map<String, String> getTokenIndexes(@NotNull OAuth2Authorization authorization) {
+        Map<String, String> indexes = new LinkedHashMap<>(8);
         String authId = authorization.getId();
         String accessToken = getTokenByAuth(authorization, OAuth2AccessToken.class);
-        //判断该授权信息中4个类型的token是否不为空，如果有值，则需要把对应token类型+MD5(token)为key,授权id为value的set格式放入缓存(摘要算法可能重复)，过期时间为一天
         if (StrUtil.isNotBlank(accessToken)) {
-            String accessTokenKey = AUTHORIZATION_UNDERSCORE + OAuth2TokenType.ACCESS_TOKEN.getValue() + UNDERSCORE + DigestUtil.md5Hex(accessToken);
-            stringRedisService.setAdd(accessTokenKey, authId);
-            stringRedisService.setExpire(accessTokenKey, RedisConstant.DEFAULT_EXPIRE);
+            indexes.put(getTokenIndexKey(accessToken), OAuth2TokenType.ACCESS_TOKEN.getValue() + INDEX_SEPARATOR + authId);
         }
         String refreshToken = getTokenByAuth(authorization, OAuth2RefreshToken.class);
         if (StrUtil.isNotBlank(refreshToken)) {
-            String refreshTokenKey = AUTHORIZATION_UNDERSCORE + OAuth2TokenType.REFRESH_TOKEN.getValue() + UNDERSCORE + DigestUtil.md5Hex(refreshToken);
-            stringRedisService.setAdd(refreshTokenKey, authId);
-            stringRedisService.setExpire(refreshTokenKey, RedisConstant.DEFAULT_EXPIRE);
+            indexes.put(getTokenIndexKey(refreshToken), OAuth2TokenType.REFRESH_TOKEN.getValue() + INDEX_SEPARATOR + authId);
         }
         String authCodeToken = getTokenByAuth(authorization, OAuth2AuthorizationCode.class);
         if (StrUtil.isNotBlank(authCodeToken)) {
-            String authCodeTokenKey = AUTHORIZATION_UNDERSCORE + OAuth2ParameterNames.CODE + UNDERSCORE + DigestUtil.md5Hex(authCodeToken);
-            stringRedisService.setAdd(authCodeTokenKey, authId);
-            stringRedisService.setExpire(authCodeTokenKey, RedisConstant.DEFAULT_EXPIRE);
+            indexes.put(getTokenIndexKey(authCodeToken), OAuth2ParameterNames.CODE + INDEX_SEPARATOR + authId);
         }
         String state = getTokenByAuth(authorization, OAuth2ParameterNames.STATE);
         if (StrUtil.isNotBlank(state)) {
-            String stateKey = AUTHORIZATION_UNDERSCORE + OAuth2ParameterNames.STATE + UNDERSCORE + DigestUtil.md5Hex(state);
-            stringRedisService.setAdd(stateKey, authId);
-            stringRedisService.setExpire(stateKey, RedisConstant.DEFAULT_EXPIRE);
+            indexes.put(getTokenIndexKey(state), OAuth2ParameterNames.STATE + INDEX_SEPARATOR + authId);
         }
+        return indexes;
+    }
+
+    private static String getTokenIndexKey(String token) {
+        return TOKEN_INDEX + DigestUtil.sha256Hex(token);
     }
 
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(OAuth2Authorization authorization) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(authorization);
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
 
     @Override
     public void remove(OAuth2Authorization authorization) {
         Assert.notNull(authorization, "authorization cannot be null");
-        stringRedisService.delKey(AUTHORIZATION_UNDERSCORE + authorization.getId());
-        //删除以token为key的数据
-        removeTokenToCache(authorization);
+        //删除授权信息及以token为key的索引，同时通知网关等节点清理本地缓存的用户信息
+        List<String> keys = new ArrayList<>(5);
+        keys.add(AUTHORIZATION_UNDERSCORE + authorization.getId());
+        keys.addAll(getTokenIndexes(authorization).keySet());
+        redisTemplate.execute(REMOVE_SCRIPT, RedisSerializer.byteArray(), LONG_SERIALIZER, keys,
+                toBytes(SecurityConstants.USER_DETAIL_INVALID_TOPIC), toBytes(getUserToken(authorization)));
     }
 
-    private void removeTokenToCache(OAuth2Authorization authorization) {
-        String authId = authorization.getId();
-        String accessToken = getTokenByAuth(authorization, OAuth2AccessToken.class);
-        //判断该授权信息中4个类型的token是否不为空，如果有值，则需要把对应token类型+MD5(token)为key,授权id为value的set结构中将对应value值删除
-        if (StrUtil.isNotBlank(accessToken)) {
-            stringRedisService.hashDelete(AUTHORIZATION_UNDERSCORE + OAuth2TokenType.ACCESS_TOKEN.getValue() + DigestUtil.md5Hex(accessToken), authId);
-        }
-        String refreshToken = getTokenByAuth(authorization, OAuth2RefreshToken.class);
-        if (StrUtil.isNotBlank(refreshToken)) {
-            stringRedisService.hashDelete(AUTHORIZATION_UNDERSCORE + OAuth2TokenType.REFRESH_TOKEN.getValue() + DigestUtil.md5Hex(refreshToken), authId);
-        }
-        String authCodeToken = getTokenByAuth(authorization, OAuth2AuthorizationCode.class);
-        if (StrUtil.isNotBlank(authCodeToken)) {
-            stringRedisService.hashDelete(AUTHORIZATION_UNDERSCORE + OAuth2ParameterNames.CODE + DigestUtil.md5Hex(authCodeToken), authId);
-        }
-        String attribute = getTokenByAuth(authorization, OAuth2ParameterNames.STATE);
-        if (StrUtil.isNotBlank(attribute)) {
-            stringRedisService.hashDelete(AUTHORIZATION_UNDERSCORE + OAuth2ParameterNames.STATE + DigestUtil.md5Hex(attribute), authId);
+    /**
+     * 获取 CustomizerOAuth2Token 中放置在accessToken的claims中的用户token
+     *
+     * @param authorization 授权信息
+     * @return 用户token
+     */
+    private String getUserToken(OAuth2Authorization authorization) {
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getAccessToken();
+        if (Objects.isNull(accessToken) || Objects.isNull(accessToken.getClaims())) {
+            return null;
         }
+        Object userToken = accessToken.getClaims().get(SecurityConstants.TOKEN);
+        return Objects.isNull(userToken) ? null : userToken.toString();
     }
 
     @Override
@@ -122,21 +194,67 @@ public final class RedisOAuth2AuthorizationService implements OAuth2Authorizatio
     @Override
     public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
         Assert.hasText(token, "token cannot be empty");
-        OAuth2Authorization authByCacheToken = null;
+        String index = stringRedisService.strGet(getTokenIndexKey(token));
+        if (StrUtil.isBlank(index)) {
+            return findByLegacyIndex(token, tokenType);
+        }
+        int separator = index.indexOf(INDEX_SEPARATOR);
+        if (separator < 0) {
+            log.warn("Illegal token index: [{}]", index);
+            return null;
+        }
+        String type = index.substring(0, separator);
+        if (tokenType != null && !tokenType.getValue().equals(type)) {
+            return null;
+        }
+        OAuth2Authorization authorization = findById(index.substring(separator + 1));
+        //token刷新后旧token的索引在过期前仍指向此授权信息，需要校验授权信息中的token是否相同
+        return authorization != null && hasToken(authorization, token, type) ? authorization : null;
+    }
+
+    /**
+     * 兼容升级前写入的 token类型+MD5(token) 索引，旧索引全部过期后不再查询
+     *
+     * @param token     token
+     * @param tokenType token类型
+     * @return 授权信息
+     */
+    private OAuth2Authorization findByLegacyIndex(String token, OAuth2TokenType tokenType) {
+        if (System.currentTimeMillis() > getLegacyIndexExpireAt()) {
+            return null;
+        }
+        OAuth2Authorization authByCacheToken;
         //如果没有token类型,则对于4个类型挨个匹配
         if (tokenType == null) {
             if ((authByCacheToken = getAuthByCacheToken(token, OAuth2ParameterNames.STATE)) == null &&
                     (authByCacheToken = getAuthByCacheToken(token, OAuth2ParameterNames.CODE)) == null &&
-                    (authByCacheToken = getAuthByCacheToken(token, OAuth2TokenType.ACCESS_TOKEN.getValue())) == null &&
-                    (authByCacheToken = getAuthByCacheToken(token, OAuth2TokenType.REFRESH_TOKEN.getValue())) == null) {
-                return null;
-            } else {
-                return authByCacheToken;
+                    (authByCacheToken = getAuthByCacheToken(token, OAuth2TokenType.ACCESS_TOKEN.getValue())) == null) {
+                authByCacheToken = getAuthByCacheToken(token, OAuth2TokenType.REFRESH_TOKEN.getValue());
             }
-        } else {
-            authByCacheToken = getAuthByCacheToken(token, tokenType);
+            return authByCacheToken;
+        }
+        return getAuthByCacheToken(token, tokenType.getValue());
+    }
+
+    /**
+     * 旧索引的过期时间以升级后第一次写入redis的时间为准，节点重启或扩容时不会延长
+     */
+    private long getLegacyIndexExpireAt() {
+        long expireAt = legacyIndexExpireAt;
+        if (expireAt > 0) {
+            return expireAt;
         }
-        return authByCacheToken;
+        String initial = String.valueOf(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(RedisConstant.DEFAULT_EXPIRE));
+        try {
+            String saved = stringRedisService.executeScript(LEGACY_INDEX_EXPIRE_AT_SCRIPT, List.of(LEGACY_INDEX_EXPIRE_AT), initial);
+            expireAt = Long.parseLong(StrUtil.isBlank(saved) ? initial : saved);
+        } catch (Exception e) {
+            // 读取失败时本次仍查询旧索引，下次重新读取
+            log.warn("Get legacy token index expire time failed", e);
+            return Long.parseLong(initial);
+        }
+        legacyIndexExpireAt = expireAt;
+        return expireAt;
     }
 
     private static boolean hasToken(OAuth2Authorization authorization, String token, @Nullable String tokenType) {
@@ -191,29 +309,17 @@ public final class RedisOAuth2AuthorizationService implements OAuth2Authorizatio
         return accessToken.getToken().getTokenValue();
     }
 
-    private OAuth2Authorization getAuthByCacheToken(String token, Object tokenType) {
-        String type = null;
-        if (tokenType instanceof OAuth2TokenType) {
-            type = ((OAuth2TokenType) tokenType).getValue();
-        } else {
-            type = (String) tokenType;
-        }
+    private OAuth2Authorization getAuthByCacheToken(String token, String type) {
         //从set集合中取出值,因为key为摘要算法生产，可能存在相同key，所以值可能有多个
         Set<String> authIdSet = stringRedisService.setMembers(AUTHORIZATION_UNDERSCORE + type + UNDERSCORE + DigestUtil.md5Hex(token));
         if (CollUtil.isEmpty(authIdSet)) {
             return null;
         }
-        List<String> authList = new ArrayList<>(authIdSet);
-        //当值集合只有1个时，直接取对应的权限信息
-        if (authList.size() == 1) {
-            return (OAuth2Authorization) redisTemplate.opsForValue().get(AUTHORIZATION_UNDERSCORE + authList.get(0));
-        } else {
-            //如果有多个，则需要循环key下的所有值，判断token是否与取得对权限中对应类型token相同，相同则返回
-            for (Object authId : authList) {
-                OAuth2Authorization authorization = (OAuth2Authorization) redisTemplate.opsForValue().get(AUTHORIZATION_UNDERSCORE + authId);
-                if (hasToken(authorization, token, type)) {
-                    return authorization;
-                }
+        //循环key下的所有值，判断token是否与取得对权限中对应类型token相同，相同则返回
+        for (String authId : authIdSet) {
+            OAuth2Authorization authorization = findById(authId);
+            if (authorization != null && hasToken(authorization, token, type)) {
+                return authorization;
             }
         }
         return null;
@@ -2,12 +2,23 @@ package com.authorization.life.security.service;
 
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.core.text.StrPool;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
 import com.authorization.common.exception.CommonException;
 import com.authorization.life.entity.OauthClient;
 import com.authorization.life.security.sso.RegClientException;
 import com.authorization.life.service.OauthClientService;
+import com.authorization.utils.contsant.SecurityConstants;
+import com.authorization.utils.excutor.ExecutorManager;
+import com.authorization.utils.excutor.ExecutorType;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
@@ -20,19 +31,68 @@ import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 自定义的client信息，查询后进行转化
+ * <p>
+ * 转化后的client信息缓存在本地，相同的clientId返回同一个实例；缓存写入超过刷新时长后，再次访问时在后台线程重新加载，
+ * 加载完成前仍返回旧的实例。不存在的clientId同样缓存，避免无效的clientId反复查询数据库。
+ * 客户端信息变更后通过{@link SecurityConstants#CLIENT_CHANGED_TOPIC}频道通知各节点失效对应的缓存。
  */
 @Slf4j
-public class RegisteredClientService implements RegisteredClientRepository {
+public class RegisteredClientService implements RegisteredClientRepository, InitializingBean {
+
+    /**
+     * 同时重新加载的最大数量
+     */
+    private static final int RELOAD_CONCURRENCY = 16;
 
     private final OauthClientService clientService;
 
+    /**
+     * 本地缓存的最大数量
+     */
+    @Value("${auth-server.client-cache.max-size:1000}")
+    private long maxSize;
+    /**
+     * 写入后超过此时长，再次访问时在后台重新加载，单位：秒
+     */
+    @Value("${auth-server.client-cache.refresh-seconds:60}")
+    private long refreshSeconds;
+    /**
+     * 本地缓存的存活时长，单位：秒
+     */
+    @Value("${auth-server.client-cache.expire-seconds:600}")
+    private long expireSeconds;
+    /**
+     * 后台重新加载使用的线程类型：platform、virtual，virtual 在jdk21及以上版本中生效
+     */
+    @Value("${auth-server.client-cache.executor-type:platform}")
+    private String executorType;
+
+    private LoadingCache<String, Optional<ClientSnapshot>> clientCache;
+
     public RegisteredClientService(OauthClientService clientService) {
         this.clientService = clientService;
     }
 
+    @Override
+    public void afterPropertiesSet() {
+        clientCache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .build(CacheLoader.asyncReloading(CacheLoader.from(this::loadClient), reloadExecutor()));
+        log.info("Init registered client cache, maxSize: {}, refreshSeconds: {}, expireSeconds: {}, executorType: {}", maxSize, refreshSeconds, expireSeconds, executorType);
+    }
+
+    private Executor reloadExecutor() {
+        return ExecutorManager.buildExecutor("ClientCacheReloadExecutor", ExecutorType.of(executorType), RELOAD_CONCURRENCY);
+    }
+
     @Override
     public void save(RegisteredClient registeredClient) {
         throw new CommonException("此处不允许进行保存数据");
@@ -40,22 +100,57 @@ public class RegisteredClientService implements RegisteredClientRepository {
 
     @Override
     public RegisteredClient findById(String clientId) {
-        OauthClient oauthClient = clientService.selectClientByClientId(clientId);
-        if (Objects.isNull(oauthClient)) {
-            return null;
-        }
-        log.debug("findById-{}", JSONUtil.toJsonStr(oauthClient));
-        return getRegisteredClient(clientId, oauthClient);
+        return getClientSnapshot(clientId).map(ClientSnapshot::getRegisteredClient).orElse(null);
     }
 
     @Override
     public RegisteredClient findByClientId(String clientId) {
+        return getClientSnapshot(clientId).map(ClientSnapshot::getRegisteredClient).orElse(null);
+    }
+
+    /**
+     * 获取本地缓存中数据库的client信息
+     *
+     * @param clientId clientId
+     * @return 数据库client，不存在时为null
+     */
+    public OauthClient findOauthClient(String clientId) {
+        return getClientSnapshot(clientId).map(ClientSnapshot::getOauthClient).orElse(null);
+    }
+
+    /**
+     * 失效本地缓存的client信息
+     *
+     * @param clientId clientId，为空时失效全部
+     */
+    public void invalidate(String clientId) {
+        if (StrUtil.isBlank(clientId)) {
+            clientCache.invalidateAll();
+        } else {
+            clientCache.invalidate(clientId);
+        }
+    }
+
+    private Optional<ClientSnapshot> getClientSnapshot(String clientId) {
+        if (StrUtil.isBlank(clientId)) {
+            return Optional.empty();
+        }
+        try {
+            return clientCache.getUnchecked(clientId);
+        } catch (UncheckedExecutionException e) {
+            // 转换失败时抛出原始异常，例如不支持的授权模式
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    private Optional<ClientSnapshot> loadClient(String clientId) {
         OauthClient oauthClient = clientService.selectClientByClientId(clientId);
         if (Objects.isNull(oauthClient)) {
-            return null;
+            return Optional.empty();
         }
-        log.debug("findByClientId-{}", JSONUtil.toJsonStr(oauthClient));
-        return getRegisteredClient(clientId, oauthClient);
+        log.debug("loadClient-{}", JSONUtil.toJsonStr(oauthClient));
+        return Optional.of(new ClientSnapshot(oauthClient, getRegisteredClient(clientId, oauthClient)));
     }
 
     /**
@@ -108,4 +203,26 @@ public class RegisteredClientService implements RegisteredClientRepository {
         return builder.build();
     }
 
+    /**
+     * 本地缓存的client信息，数据库中的client及转换后的 RegisteredClient
+     */
+    private static final class ClientSnapshot {
+
+        private final OauthClient oauthClient;
+        private final RegisteredClient registeredClient;
+
+        private ClientSnapshot(OauthClient oauthClient, RegisteredClient registeredClient) {
+            this.oauthClient = oauthClient;
+            this.registeredClient = registeredClient;
+        }
+
+        private OauthClient getOauthClient() {
+            return oauthClient;
+        }
+
+        private RegisteredClient getRegisteredClient() {
+            return registeredClient;
+        }
+    }
+
 }
@@ -1,45 +1,92 @@
 package com.authorization.life.security.service;
 
 import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.StrUtil;
 import com.authorization.core.entity.UserDetail;
 import com.authorization.core.security.UserDetailService;
 import com.authorization.life.entity.OauthClient;
 import com.authorization.life.entity.User;
-import com.authorization.life.entity.UserGroup;
-import com.authorization.life.service.OauthClientService;
-import com.authorization.life.service.UserGroupService;
 import com.authorization.life.service.UserService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 查询用户信息
+ * <p>
+ * 登录时以手机号/邮箱为key在本地短暂缓存查询结果，不存在的用户同样缓存，
+ * 避免针对不存在账号的撞库请求反复查询数据库；同一账号的并发登录只查询一次。
  */
 @Slf4j
 @Service
-public class SecurityAuthUserService implements UserDetailService {
+public class SecurityAuthUserService implements UserDetailService, InitializingBean {
 
     @Autowired
     private UserService userService;
     @Autowired
-    private UserGroupService groupService;
-    @Autowired
-    private OauthClientService oauthClientService;
+    private RegisteredClientService registeredClientService;
+
+    /**
+     * 本地缓存的最大数量
+     */
+    @Value("${auth-server.user-cache.max-size:10000}")
+    private long maxSize;
+    /**
+     * 本地缓存的存活时长，单位：秒
+     */
+    @Value("${auth-server.user-cache.expire-seconds:10}")
+    private long expireSeconds;
+
+    private Cache<String, Optional<User>> userCache;
+
+    @Override
+    public void afterPropertiesSet() {
+        userCache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("Init login user cache, maxSize: {}, expireSeconds: {}", maxSize, expireSeconds);
+    }
 
     @Override
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
+        Optional<User> user;
+        try {
+            user = userCache.get(StrUtil.nullToEmpty(username), () -> Optional.ofNullable(selectUser(username)));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("查询用户[" + username + "]信息失败", e.getCause());
+        }
+        Assert.isTrue(user.isPresent(), () -> new UsernameNotFoundException("user [" + username + "] not found"));
+        return user.get();
+    }
+
+    /**
+     * 失效本地缓存的用户信息，用户被锁定等信息变更后调用
+     *
+     * @param username 手机号/邮箱
+     */
+    public void evict(String username) {
+        userCache.invalidate(StrUtil.nullToEmpty(username));
+    }
+
+    private User selectUser(String username) {
         log.debug("登录时查询用户[{}]信息。", username);
-        User user = userService.selectByUsername(username);
-        Assert.notNull(user, () -> new UsernameNotFoundException("user [" + username + "] not found"));
-        List<UserGroup> userGroups = groupService.selectByUserId(user.getUserId());
-        user.setUserGroups(userGroups.stream().map(UserGroup::getUserGroupCode).collect(Collectors.toSet()));
+        User user = userService.selectWithGroupsByUsername(username);
+        if (Objects.nonNull(user) && Objects.isNull(user.getUserGroups())) {
+            user.setUserGroups(new HashSet<>());
+        }
         return user;
     }
 
@@ -70,7 +117,7 @@ public class SecurityAuthUserService implements UserDetailService {
 
 
     public UserDetail createUserDetailByClientId(String clientId) {
-        OauthClient oauthClient = oauthClientService.selectClientByClientId(clientId);
+        OauthClient oauthClient = registeredClientService.findOauthClient(clientId);
         UserDetail userDetail = new UserDetail();
         userDetail.setUsername(oauthClient.getClientId());
         userDetail.setTenantId(oauthClient.getTenantId());
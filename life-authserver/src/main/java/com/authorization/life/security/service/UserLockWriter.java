@@ -0,0 +1,109 @@
+package com.authorization.life.security.service;
+
+import com.authorization.life.service.UserService;
+import com.authorization.utils.excutor.ExecutorManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 异步批量写入用户的锁定状态
+ * <p>
+ * 登录失败次数过多时锁定状态先写入redis并立即生效，数据库中的锁定状态由此类在后台定期合并为一条update语句写入，
+ * 登录请求不需要等待数据库；写入失败时重新放回队列，超过重试次数后丢弃，redis中的锁定状态在此期间仍然有效。
+ */
+@Slf4j
+@Service
+public class UserLockWriter implements InitializingBean, DisposableBean {
+
+    private static final String EXECUTOR_NAME = "USER-LOCK-WRITER-";
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private SecurityAuthUserService authUserService;
+
+    /**
+     * 写入数据库的间隔，单位：毫秒
+     */
+    @Value("${auth-server.user-lock.flush-millis:1000}")
+    private long flushMillis;
+
+    private final Queue<LockRequest> queue = new ConcurrentLinkedQueue<>();
+    private ScheduledThreadPoolExecutor executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        executor = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory(EXECUTOR_NAME));
+        ExecutorManager.registerAndMonitorThreadPoolExecutor(EXECUTOR_NAME, executor);
+        executor.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        log.info("Init user lock writer, flushMillis: {}", flushMillis);
+    }
+
+    /**
+     * 提交锁定用户的请求，在下次写入时与其他请求合并写入数据库
+     *
+     * @param userId   用户ID
+     * @param username 登录时的用户名，写入后失效本地缓存的用户信息
+     * @param lockTime 锁定时间-单位：小时；
+     */
+    public void lock(Long userId, String username, int lockTime) {
+        queue.offer(new LockRequest(userId, username, lockTime, 1));
+    }
+
+    /**
+     * 写入队列中的全部请求，锁定时长相同的用户使用一条update语句
+     */
+    synchronized void flush() {
+        List<LockRequest> requests = new ArrayList<>();
+        LockRequest request;
+        while ((request = queue.poll()) != null) {
+            requests.add(request);
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<LockRequest>> groups = requests.stream().collect(Collectors.groupingBy(LockRequest::lockTime));
+        groups.forEach((lockTime, group) -> {
+            List<Long> userIds = group.stream().map(LockRequest::userId).distinct().toList();
+            try {
+                int updated = userService.lockBatch(userIds, lockTime);
+                log.info("锁定用户{}小时，用户：{}，更新行数：{}", lockTime, userIds, updated);
+                group.forEach(lockRequest -> authUserService.evict(lockRequest.username()));
+            } catch (Exception e) {
+                log.error("锁定用户写入数据库失败，用户：{}", userIds, e);
+                group.stream()
+                        .filter(lockRequest -> lockRequest.attempts() < MAX_ATTEMPTS)
+                        .forEach(lockRequest -> queue.offer(lockRequest.retry()));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        // 停机前写入剩余的请求
+        flush();
+    }
+
+    private record LockRequest(Long userId, String username, int lockTime, int attempts) {
+
+        LockRequest retry() {
+            return new LockRequest(userId, username, lockTime, attempts + 1);
+        }
+    }
+}
@@ -6,11 +6,14 @@ import com.authorization.life.entity.User;
 import com.authorization.core.security.SecurityConstant;
 import com.authorization.redis.start.service.StringRedisService;
 import com.authorization.utils.kvp.KvpFormat;
+import com.authorization.life.security.service.UserLockWriter;
 import com.authorization.life.security.util.RedisCaptchaValidator;
-import com.authorization.life.service.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.AbstractUserDetailsAuthenticationProvider;
 import org.springframework.security.core.AuthenticationException;
@@ -21,8 +24,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 
-import java.util.Optional;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 用户名密码登录的校验。
@@ -35,22 +39,65 @@ public class UsernamePasswordAuthenticationProvider extends AbstractUserDetailsA
     public static final String CLIENT_ID = "client_id";
 
     private static final String PASSWORD_ERROR_COUNT = SecurityConstant.PASSWORD_ERROR_COUNT;
+    private static final String USER_LOCKED = SecurityConstant.USER_LOCKED;
+    /**
+     * 密码错误超过此次数后需要输入验证码
+     */
+    private static final int CAPTCHA_ERROR_COUNT = 5;
+    /**
+     * 密码错误超过此次数后锁定用户
+     */
+    private static final int MAX_ERROR_COUNT = 10;
+    /**
+     * 锁定时长，单位：小时
+     */
+    private static final int LOCK_HOURS = 3;
+    /**
+     * 密码错误次数的统计窗口，每次输错后重新计算，单位：秒
+     */
+    private static final long ERROR_WINDOW_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    /**
+     * KEYS：错误次数、锁定标记；ARGV：统计窗口秒数、最大错误次数、锁定秒数。
+     * 已锁定时返回-1，否则返回累计的错误次数，超过最大次数时写入锁定标记并清除错误次数
+     */
+    private static final RedisScript<Long> FAILURE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[2]) == 1 then " +
+                    "return -1 " +
+                    "end " +
+                    "local count = redis.call('incr', KEYS[1]) " +
+                    "if count > tonumber(ARGV[2]) then " +
+                    "redis.call('set', KEYS[2], count, 'EX', ARGV[3]) " +
+                    "redis.call('del', KEYS[1]) " +
+                    "else " +
+                    "redis.call('expire', KEYS[1], ARGV[1]) " +
+                    "end " +
+                    "return count", Long.class);
+    /**
+     * KEYS：错误次数、锁定标记。未锁定时清除错误次数并返回空，已锁定时返回锁定的剩余秒数
+     */
+    private static final RedisScript<Long> SUCCESS_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[2]) == 1 then " +
+                    "return redis.call('ttl', KEYS[2]) " +
+                    "end " +
+                    "redis.call('del', KEYS[1]) " +
+                    "return nil", Long.class);
 
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
     private final StringRedisService stringRedisService;
-    private final UserService userService;
+    private final UserLockWriter userLockWriter;
     private final RegisteredClientRepository registeredClientService;
 
     public UsernamePasswordAuthenticationProvider(UserDetailsService userDetailsService,
                                                   PasswordEncoder passwordEncoder,
                                                   StringRedisService stringRedisService,
-                                                  UserService userService,
+                                                  UserLockWriter userLockWriter,
                                                   RegisteredClientRepository registeredClientService) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
         this.stringRedisService = stringRedisService;
-        this.userService = userService;
+        this.userLockWriter = userLockWriter;
         this.registeredClientService = registeredClientService;
     }
 
@@ -89,26 +136,30 @@ public class UsernamePasswordAuthenticationProvider extends AbstractUserDetailsA
         }
         // 检查密码正确
         String presentedPassword = authentication.getCredentials().toString();
+        List<String> keys = List.of(
+                KvpFormat.of(PASSWORD_ERROR_COUNT).add("username", userDetails.getUsername()).format(),
+                KvpFormat.of(USER_LOCKED).add("username", userDetails.getUsername()).format());
         if (passwordEncoder.matches(presentedPassword, userDetails.getPassword())) {
-            // 清除密码错误次数累计
-            String cacheKey = KvpFormat.of(PASSWORD_ERROR_COUNT).add("username", userDetails.getUsername()).format();
-            stringRedisService.delKey(cacheKey);
+            // 未被锁定时清除密码错误次数累计
+            Long lockedSeconds = stringRedisService.executeScript(SUCCESS_SCRIPT, keys);
+            if (lockedSeconds != null) {
+                throw new LockedException(lockedMessage(lockedSeconds));
+            }
         } else {
             log.debug("Authentication failed: password does not match stored value");
-            // 检查密码错误次数
-            String cacheKey = KvpFormat.of(PASSWORD_ERROR_COUNT).add("username", userDetails.getUsername()).format();
-            int passwordErrorCount = Optional.ofNullable(stringRedisService.strGet(cacheKey)).map(count -> Integer.parseInt(count.toString())).orElse(0);
-            if (passwordErrorCount >= 5 && passwordErrorCount < 10) {
-                // 未超过10次则密码错误累计次数+1
-                stringRedisService.strSet(cacheKey, passwordErrorCount + 1);
-                throw new VerificationCodeException("用户名或密码错误。");
+            // 密码错误次数+1，并返回累计次数
+            Long passwordErrorCount = stringRedisService.executeScript(FAILURE_SCRIPT, keys,
+                    String.valueOf(ERROR_WINDOW_SECONDS), String.valueOf(MAX_ERROR_COUNT), String.valueOf(TimeUnit.HOURS.toSeconds(LOCK_HOURS)));
+            if (passwordErrorCount == null || passwordErrorCount < 0) {
+                throw new LockedException(lockedMessage(-1));
+            }
+            if (passwordErrorCount > MAX_ERROR_COUNT) {
+                // 输错10次则锁定用户3小时，redis中已锁定，数据库异步写入
+                userLockWriter.lock(((User) userDetails).getUserId(), authentication.getName(), LOCK_HOURS);
+                throw new BadCredentialsException("用户名或密码错误。");
             }
-            if (passwordErrorCount >= 10) {
-                // 输错10次则锁定用户3小时
-                userService.lock(((User) userDetails).getUserId(), 3);
-            } else {
-                // 未超过10次则密码错误累计次数+1
-                stringRedisService.strSet(cacheKey, passwordErrorCount + 1);
+            if (passwordErrorCount > CAPTCHA_ERROR_COUNT) {
+                throw new VerificationCodeException("用户名或密码错误。");
             }
             throw new BadCredentialsException("用户名或密码错误。");
         }
@@ -124,6 +175,16 @@ public class UsernamePasswordAuthenticationProvider extends AbstractUserDetailsA
         }
     }
 
+    /**
+     * @param lockedSeconds 锁定的剩余秒数，未知时小于等于0
+     */
+    private static String lockedMessage(long lockedSeconds) {
+        if (lockedSeconds <= 0) {
+            return "密码错误次数过多，用户已被锁定，请稍后再试。";
+        }
+        return "密码错误次数过多，用户已被锁定，请" + (TimeUnit.SECONDS.toMinutes(lockedSeconds) + 1) + "分钟后再试。";
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
@@ -4,6 +4,8 @@ import com.authorization.core.entity.UserDetail;
 import com.authorization.life.entity.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Collection;
+
 /**
  * 用户表
  *
@@ -20,6 +22,13 @@ public interface UserService {
      */
     User selectByUsername(String username);
 
+    /**
+     * 登录查询使用，一次查询用户及其所属的用户组编码
+     *
+     * @param username 手机号/邮箱
+     */
+    User selectWithGroupsByUsername(String username);
+
     /**
      * 创建当前登录用户信息
      *
@@ -35,4 +44,13 @@ public interface UserService {
      */
     void lock(Long userId , Integer lockTime);
 
+    /**
+     * 批量锁定用户几小时，一条update语句完成
+     *
+     * @param userIds  用户ID
+     * @param lockTime 锁定时间-单位：小时；
+     * @return 更新的行数
+     */
+    int lockBatch(Collection<Long> userIds, Integer lockTime);
+
 }
@@ -14,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 用户表
@@ -39,6 +41,16 @@ public class UserServiceImpl implements UserService {
                 .or().eq(User::getEmail, username));
     }
 
+    /**
+     * 登录查询使用，一次查询用户及其所属的用户组编码
+     *
+     * @param username 手机号/邮箱
+     */
+    @Override
+    public User selectWithGroupsByUsername(String username) {
+        return mapper.selectWithGroupsByUsername(username);
+    }
+
     /**
      * 创建当前登录用户信息
      *
@@ -59,14 +71,32 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void lock(Long userId, Integer lockTime) {
-        User user = mapper.selectOne(Wrappers.lambdaQuery(new User()).eq(User::getUserId, userId));
-        Assert.notNull(user, "未找到该用户信息");
+        int updated = this.lockBatch(List.of(userId), lockTime);
+        Assert.isTrue(updated > 0, "未找到该用户信息");
+    }
+
+    /**
+     * 批量锁定用户几小时
+     *
+     * @param userIds  用户ID
+     * @param lockTime 锁定时间-单位：小时；
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int lockBatch(Collection<Long> userIds, Integer lockTime) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
         UserHelper.setUserDetail(UserDetail.systemUser());
-        LambdaUpdateWrapper<User> updateWrapper = Wrappers.lambdaUpdate(new User())
-                .eq(User::getUserId, user)
-                .set(User::getLockedFlag, Boolean.TRUE)
-                .set(User::getLockedTime, LocalDateTime.now().plusHours(lockTime));
-        mapper.update(user, updateWrapper);
-        UserHelper.setUserDetail(null);
+        try {
+            LambdaUpdateWrapper<User> updateWrapper = Wrappers.lambdaUpdate(User.class)
+                    .in(User::getUserId, userIds)
+                    .set(User::getLockedFlag, Boolean.TRUE)
+                    .set(User::getLockedTime, LocalDateTime.now().plusHours(lockTime));
+            // 传入实体以便自动填充更新人、更新时间
+            return mapper.update(new User(), updateWrapper);
+        } finally {
+            UserHelper.setUserDetail(null);
+        }
     }
 }
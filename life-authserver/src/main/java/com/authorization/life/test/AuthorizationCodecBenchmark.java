@@ -0,0 +1,140 @@
+package com.authorization.life.test;
+
+import cn.hutool.core.util.IdUtil;
+import com.authorization.life.entity.User;
+import com.authorization.life.security.codec.OAuth2AuthorizationCodec;
+import com.authorization.life.security.codec.OAuth2AuthorizationConsentCodec;
+import com.authorization.redis.start.serializer.RedisValueCodec;
+import com.authorization.redis.start.serializer.VersionedRedisSerializer;
+import com.google.common.collect.Sets;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * OAuth2Authorization 在jdk序列化与紧凑格式下的大小及编解码耗时对比，输出每个授权信息的字节数及每次操作的平均纳秒数。
+ */
+@Slf4j
+public class AuthorizationCodecBenchmark {
+
+    private static final int WARM_UP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    public static void main(String[] args) {
+        List<RedisValueCodec<?>> codecs =
+                List.of(new OAuth2AuthorizationCodec(), new OAuth2AuthorizationConsentCodec());
+        RedisSerializer<Object> jdk = new VersionedRedisSerializer(codecs, false);
+        RedisSerializer<Object> compact = new VersionedRedisSerializer(codecs, true);
+        OAuth2Authorization authorization = authorization();
+
+        byte[] jdkBytes = jdk.serialize(authorization);
+        byte[] compactBytes = compact.serialize(authorization);
+        // 两种格式写入的数据均可被同一个序列化器读取
+        OAuth2Authorization fromCompact = (OAuth2Authorization) jdk.deserialize(compactBytes);
+        OAuth2Authorization fromJdk = (OAuth2Authorization) compact.deserialize(jdkBytes);
+        log.info("round trip equals, compact: {}, jdk: {}",
+                Objects.equals(authorization.getAccessToken().getToken().getTokenValue(), fromCompact.getAccessToken().getToken().getTokenValue()),
+                Objects.equals(authorization.getAccessToken().getToken().getTokenValue(), fromJdk.getAccessToken().getToken().getTokenValue()));
+        log.info("bytes per authorization, jdk: {}, compact: {}", jdkBytes.length, compactBytes.length);
+
+        // 预热
+        measure("warm-up", WARM_UP, jdk, compact, authorization, jdkBytes, compactBytes);
+        measure("measure", ITERATIONS, jdk, compact, authorization, jdkBytes, compactBytes);
+    }
+
+    private static void measure(String name, int iterations, RedisSerializer<Object> jdk, RedisSerializer<Object> compact,
+                                OAuth2Authorization authorization, byte[] jdkBytes, byte[] compactBytes) {
+        long blackhole = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += jdk.serialize(authorization).length;
+        }
+        long jdkEncode = (System.nanoTime() - start) / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += compact.serialize(authorization).length;
+        }
+        long compactEncode = (System.nanoTime() - start) / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += jdk.deserialize(jdkBytes).hashCode();
+        }
+        long jdkDecode = (System.nanoTime() - start) / iterations;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += compact.deserialize(compactBytes).hashCode();
+        }
+        long compactDecode = (System.nanoTime() - start) / iterations;
+        log.info("[{}] iterations: {}, encode jdk: {} ns/op, compact: {} ns/op, decode jdk: {} ns/op, compact: {} ns/op, checksum: {}",
+                name, iterations, jdkEncode, compactEncode, jdkDecode, compactDecode, blackhole);
+    }
+
+    private static OAuth2Authorization authorization() {
+        RegisteredClient registeredClient = RegisteredClient.withId("passport")
+                .clientId("passport")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("https://authorization.life")
+                .scope("TENANT")
+                .build();
+        User user = new User();
+        user.setUserId(1L);
+        user.setUsername("admin");
+        user.setRealName("管理员");
+        user.setEmail("admin@authorization.life");
+        user.setEnabledFlag(true);
+        user.setTenantId(0L);
+        user.setEffectiveStartDate(LocalDateTime.now());
+        user.setUserGroups(Sets.newHashSet("TENANT"));
+        UsernamePasswordAuthenticationToken principal = new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList());
+        String state = IdUtil.fastSimpleUUID();
+        OAuth2AuthorizationRequest authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://authorization.life/oauth2/authorize")
+                .clientId(registeredClient.getClientId())
+                .redirectUri("https://authorization.life")
+                .scopes(registeredClient.getScopes())
+                .state(state)
+                .build();
+
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(1, ChronoUnit.DAYS);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("sub", "admin");
+        claims.put("aud", List.of("passport"));
+        claims.put("iat", issuedAt);
+        claims.put("exp", expiresAt);
+        claims.put("scope", registeredClient.getScopes());
+        claims.put("token", IdUtil.fastSimpleUUID());
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(IdUtil.fastSimpleUUID())
+                .principalName(user.getUsername())
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizedScopes(registeredClient.getScopes())
+                .attribute(Principal.class.getName(), principal)
+                .attribute(OAuth2AuthorizationRequest.class.getName(), authorizationRequest)
+                .attribute(OAuth2ParameterNames.STATE, state)
+                .token(new OAuth2AuthorizationCode(IdUtil.fastSimpleUUID(), issuedAt, issuedAt.plus(5, ChronoUnit.MINUTES)),
+                        metadata -> metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+                .token(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, IdUtil.fastSimpleUUID(), issuedAt, expiresAt,
+                        registeredClient.getScopes()), metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, claims))
+                .refreshToken(new OAuth2RefreshToken(IdUtil.fastSimpleUUID(), issuedAt, expiresAt))
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.authorization.life.test;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.authorization.core.security.SecurityConstant;
+import com.authorization.life.security.service.RedisOAuth2AuthorizationService;
+import com.authorization.redis.start.service.RedisConstant;
+import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.redis.start.test.RedisHarness;
+import com.authorization.utils.json.JsonHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 颁发token时保存授权信息的吞吐量对比：逐条执行9个redis命令(SET + 4 * (SADD + EXPIRE)) 与 lua脚本一次写入。
+ * <p>
+ * 需要本地启动redis，默认连接 127.0.0.1:7777(与 application.properties 相同)，可通过参数指定：host port
+ */
+@Slf4j
+public class AuthorizationSaveBenchmark {
+
+    private static final String AUTHORIZATION_UNDERSCORE = SecurityConstant.AUTHORIZATION + RedisOAuth2AuthorizationService.UNDERSCORE;
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        LettuceConnectionFactory connectionFactory = RedisHarness.connect(args);
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
+        redisTemplate.setHashValueSerializer(new JdkSerializationRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        StringRedisService stringRedisService = new StringRedisService(new StringRedisTemplate(connectionFactory), JsonHelper.getObjectMapper());
+        RedisOAuth2AuthorizationService authorizationService = new RedisOAuth2AuthorizationService(redisTemplate, stringRedisService);
+
+        RegisteredClient registeredClient = RegisteredClient.withId("passport")
+                .clientId("passport")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("https://authorization.life")
+                .build();
+        Consumer<OAuth2Authorization> sequential = authorization -> saveSequential(redisTemplate, stringRedisService, authorization);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        // 预热
+        run("warm-up-sequential", executor, registeredClient, sequential, authorizationService);
+        run("warm-up-script", executor, registeredClient, authorizationService::save, authorizationService);
+
+        run("sequential", executor, registeredClient, sequential, authorizationService);
+        run("script", executor, registeredClient, authorizationService::save, authorizationService);
+
+        executor.shutdown();
+        connectionFactory.destroy();
+    }
+
+    private static void run(String name, ExecutorService executor, RegisteredClient registeredClient,
+                            Consumer<OAuth2Authorization> save, RedisOAuth2AuthorizationService authorizationService) throws Exception {
+        List<OAuth2Authorization> authorizations = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            authorizations.add(authorization(registeredClient));
+        }
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        for (OAuth2Authorization authorization : authorizations) {
+            futures.add(executor.submit(() -> save.accept(authorization)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        log.info("[{}] requests: {}, threads: {}, throughput: {} save/s, avg: {} us/save",
+                name, REQUESTS, THREADS,
+                REQUESTS * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                TimeUnit.NANOSECONDS.toMicros(elapsed * THREADS / REQUESTS));
+        authorizations.forEach(authorizationService::remove);
+    }
+
+    /**
+     * 与调整前的保存逻辑相同，每个命令一次网络往返
+     */
+    private static void saveSequential(RedisTemplate<String, Object> redisTemplate, StringRedisService stringRedisService,
+                                       OAuth2Authorization authorization) {
+        String authId = authorization.getId();
+        redisTemplate.opsForValue().set(AUTHORIZATION_UNDERSCORE + authId, authorization, 1, TimeUnit.DAYS);
+        List<String> indexKeys = List.of(
+                AUTHORIZATION_UNDERSCORE + OAuth2TokenType.ACCESS_TOKEN.getValue() + RedisOAuth2AuthorizationService.UNDERSCORE
+                        + DigestUtil.md5Hex(authorization.getAccessToken().getToken().getTokenValue()),
+                AUTHORIZATION_UNDERSCORE + OAuth2TokenType.REFRESH_TOKEN.getValue() + RedisOAuth2AuthorizationService.UNDERSCORE
+                        + DigestUtil.md5Hex(authorization.getRefreshToken().getToken().getTokenValue()),
+                AUTHORIZATION_UNDERSCORE + OAuth2ParameterNames.CODE + RedisOAuth2AuthorizationService.UNDERSCORE
+                        + DigestUtil.md5Hex(authorization.getToken(OAuth2AuthorizationCode.class).getToken().getTokenValue()),
+                AUTHORIZATION_UNDERSCORE + OAuth2ParameterNames.STATE + RedisOAuth2AuthorizationService.UNDERSCORE
+                        + DigestUtil.md5Hex(authorization.<String>getAttribute(OAuth2ParameterNames.STATE)));
+        for (String indexKey : indexKeys) {
+            stringRedisService.setAdd(indexKey, authId);
+            stringRedisService.setExpire(indexKey, RedisConstant.DEFAULT_EXPIRE);
+        }
+    }
+
+    private static OAuth2Authorization authorization(RegisteredClient registeredClient) {
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(1, ChronoUnit.DAYS);
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(IdUtil.fastSimpleUUID())
+                .principalName("admin")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .attribute(OAuth2ParameterNames.STATE, IdUtil.fastSimpleUUID())
+                .token(new OAuth2AuthorizationCode(IdUtil.fastSimpleUUID(), issuedAt, expiresAt))
+                .accessToken(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, IdUtil.fastSimpleUUID(), issuedAt, expiresAt))
+                .refreshToken(new OAuth2RefreshToken(IdUtil.fastSimpleUUID(), issuedAt, expiresAt))
+                .build();
+    }
+}
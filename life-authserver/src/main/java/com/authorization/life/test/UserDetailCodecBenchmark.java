@@ -0,0 +1,129 @@
+package com.authorization.life.test;
+
+import cn.hutool.core.util.IdUtil;
+import com.authorization.core.entity.UserDetail;
+import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.redis.start.test.RedisHarness;
+import com.authorization.utils.contsant.SecurityConstants;
+import com.authorization.utils.json.JsonHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Sets;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * 用户信息在 String 中转与字节直接读写两种方式下的编解码耗时、内存分配及redis读写耗时对比。
+ * <p>
+ * 编解码部分不需要redis；读写部分需要本地启动redis，默认连接 127.0.0.1:7777(与 application.properties 相同)，可通过参数指定：host port
+ */
+@Slf4j
+public class UserDetailCodecBenchmark {
+
+    private static final int WARM_UP = 50_000;
+    private static final int ITERATIONS = 500_000;
+    private static final int REDIS_ITERATIONS = 20_000;
+
+    public static void main(String[] args) {
+        ObjectMapper objectMapper = JsonHelper.getObjectMapper();
+        LettuceConnectionFactory connectionFactory = RedisHarness.connect(args);
+        StringRedisService stringRedisService = new StringRedisService(new StringRedisTemplate(connectionFactory), objectMapper);
+        UserDetail userDetail = userDetail();
+
+        byte[] bytes = stringRedisService.toJsonBytes(userDetail);
+        // 两种方式的结果一致，可以互相读取
+        log.info("payload bytes: {}, same as string path: {}", bytes.length,
+                Objects.equals(new String(bytes, StandardCharsets.UTF_8), stringRedisService.toJson(userDetail)));
+
+        // 与 StringRedisTemplate 的处理方式相同：先转为 String ，再编码为UTF-8字节
+        ToLongFunction<Integer> stringEncode = i -> stringRedisService.toJson(userDetail).getBytes(StandardCharsets.UTF_8).length;
+        ToLongFunction<Integer> bytesEncode = i -> stringRedisService.toJsonBytes(userDetail).length;
+        ToLongFunction<Integer> stringDecode = i -> stringRedisService.fromJson(new String(bytes, StandardCharsets.UTF_8), UserDetail.class).getUserId();
+        ToLongFunction<Integer> bytesDecode = i -> stringRedisService.fromJsonBytes(bytes, UserDetail.class).getUserId();
+        // 预热
+        for (int i = 0; i < 2; i++) {
+            String name = i == 0 ? "warm-up" : "measure";
+            int iterations = i == 0 ? WARM_UP : ITERATIONS;
+            measure(name + "-encode-string", iterations, stringEncode);
+            measure(name + "-encode-bytes", iterations, bytesEncode);
+            measure(name + "-decode-string", iterations, stringDecode);
+            measure(name + "-decode-bytes", iterations, bytesDecode);
+        }
+
+        String key = SecurityConstants.getUserTokenKey(userDetail.getToken());
+        ToLongFunction<Integer> stringRoundTrip = i -> {
+            stringRedisService.strSet(key, userDetail, 1, TimeUnit.MINUTES);
+            return stringRedisService.strGet(key, UserDetail.class).getUserId();
+        };
+        ToLongFunction<Integer> bytesRoundTrip = i -> {
+            stringRedisService.jsonSet(key, userDetail, 1, TimeUnit.MINUTES);
+            return stringRedisService.jsonGet(key, UserDetail.class).getUserId();
+        };
+        measure("warm-up-redis-string", REDIS_ITERATIONS / 10, stringRoundTrip);
+        measure("warm-up-redis-bytes", REDIS_ITERATIONS / 10, bytesRoundTrip);
+        measure("redis-string", REDIS_ITERATIONS, stringRoundTrip);
+        measure("redis-bytes", REDIS_ITERATIONS, bytesRoundTrip);
+        stringRedisService.delKey(key);
+        connectionFactory.destroy();
+    }
+
+    /**
+     * 输出每次操作的平均纳秒数及当前线程分配的字节数
+     */
+    private static void measure(String name, int iterations, ToLongFunction<Integer> operation) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long blackhole = 0;
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += operation.applyAsLong(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        log.info("[{}] iterations: {}, {} ns/op, {} bytes/op allocated, checksum: {}",
+                name, iterations, elapsed / iterations, allocated / iterations, blackhole);
+    }
+
+    private static UserDetail userDetail() {
+        UserDetail userDetail = new UserDetail();
+        userDetail.setUserId(10086L);
+        userDetail.setUsername("admin");
+        userDetail.setRealName("管理员");
+        userDetail.setUserGender(1);
+        userDetail.setUserPhone("13800000000");
+        userDetail.setUserEmail("admin@authorization.life");
+        userDetail.setUserGroups(Sets.newHashSet("TENANT", "SYSTEM"));
+        userDetail.setEffectiveStartDate(LocalDateTime.now().minusYears(1));
+        userDetail.setEffectiveEndDate(LocalDateTime.now().plusYears(10));
+        userDetail.setUserEnabledFlag(true);
+        userDetail.setUserActivedFlag(true);
+        userDetail.setEmpId(20001L);
+        userDetail.setTenantId(0L);
+        userDetail.setEmpNum("E20001");
+        userDetail.setEmpName("管理员");
+        userDetail.setEmpEmail("admin@authorization.life");
+        userDetail.setEmpPhone("13800000000");
+        userDetail.setEmpGender(1);
+        userDetail.setEmpEnabledFlag(true);
+        userDetail.setCurrentRole("ADMIN");
+        userDetail.setCurrentRoleName("系统管理员");
+        userDetail.setRoles(Sets.newHashSet("ADMIN", "TENANT_ADMIN", "USER"));
+        userDetail.setLanguage("zh_CN");
+        userDetail.setLocale(Locale.CHINA);
+        userDetail.setTenantCode("LIFE");
+        userDetail.setTenantName("authorization-life");
+        userDetail.setToken(IdUtil.fastSimpleUUID());
+        userDetail.setAuthorizationId(IdUtil.fastSimpleUUID());
+        userDetail.setAuthorizationIdToken(IdUtil.fastSimpleUUID());
+        return userDetail;
+    }
+}
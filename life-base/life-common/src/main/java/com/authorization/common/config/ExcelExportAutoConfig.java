@@ -0,0 +1,49 @@
+package com.authorization.common.config;
+
+import com.authorization.common.excel.ExcelExportJobService;
+import com.authorization.redis.start.config.LifeRedisAutoConfiguration;
+import com.authorization.redis.start.service.StringRedisService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * 异步导出任务的配置信息，引入了 redis-start-life 时生效
+ *
+ * @author wangjunming
+ */
+@Configuration
+@AutoConfiguration(after = LifeRedisAutoConfiguration.class)
+@ConditionalOnClass(StringRedisService.class)
+public class ExcelExportAutoConfig {
+
+    /**
+     * 异步导出任务
+     *
+     * @param stringRedisService redis工具类
+     * @param tempDir            临时文件目录
+     * @param threads            同时执行的导出任务数量
+     * @param queueSize          等待执行的导出任务数量
+     * @param chunkSize          每批读取的数据量
+     * @param keepMinutes        导出完成后文件的保留时长，单位：分钟
+     * @return ExcelExportJobService
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnBean(StringRedisService.class)
+    @ConditionalOnMissingBean
+    public ExcelExportJobService excelExportJobService(StringRedisService stringRedisService,
+                                                       @Value("${life.excel.export.temp-dir:${java.io.tmpdir}/life-excel-export}") String tempDir,
+                                                       @Value("${life.excel.export.threads:2}") int threads,
+                                                       @Value("${life.excel.export.queue-size:64}") int queueSize,
+                                                       @Value("${life.excel.export.chunk-size:1000}") int chunkSize,
+                                                       @Value("${life.excel.export.keep-minutes:60}") long keepMinutes) {
+        return new ExcelExportJobService(stringRedisService, Paths.get(tempDir), threads, queueSize, chunkSize, keepMinutes);
+    }
+
+}
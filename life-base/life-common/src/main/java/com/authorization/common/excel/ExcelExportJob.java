@@ -0,0 +1,101 @@
+package com.authorization.common.excel;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * <p>
+ * 异步导出任务的状态，任务的进度及结果以此对象发布到
+ * {@link ExcelViewDecorate#EXCEL_SUCCESS_EXPORT_BROKER} 、 {@link ExcelViewDecorate#EXCEL_ERROR_EXPORT_BROKER} 频道
+ * </p>
+ *
+ * @author wangjunming
+ */
+@Getter
+@Setter
+@ToString
+@Accessors(chain = true)
+public class ExcelExportJob {
+
+    /**
+     * 任务id
+     */
+    private String jobId;
+    /**
+     * 导出的文件名
+     */
+    private String filename;
+    /**
+     * 任务状态
+     */
+    private volatile Status status;
+    /**
+     * 已写入的数据行数
+     */
+    private volatile long rowCount;
+    /**
+     * 导出文件的字节数，导出完成后设置
+     */
+    private long fileSize;
+    /**
+     * 导出失败的原因
+     */
+    private String errorMessage;
+    /**
+     * 提交时间，毫秒时间戳
+     */
+    private long submitTime;
+    /**
+     * 完成时间，毫秒时间戳
+     */
+    private long finishTime;
+    /**
+     * 导出的临时文件，仅在生成此文件的节点中可用
+     */
+    @JsonIgnore
+    private Path file;
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        /**
+         * 等待执行
+         */
+        WAITING,
+        /**
+         * 正在导出
+         */
+        RUNNING,
+        /**
+         * 导出完成，可以下载
+         */
+        SUCCESS,
+        /**
+         * 导出失败
+         */
+        FAILED
+    }
+
+    /**
+     * 分批读取导出数据，例如分页查询数据库
+     */
+    @FunctionalInterface
+    public interface ChunkLoader {
+
+        /**
+         * 读取一批数据，返回的数量小于 pageSize 时视为最后一批
+         *
+         * @param pageNo   第几批，从1开始
+         * @param pageSize 每批的数量
+         * @return 数据集合
+         */
+        List<?> load(int pageNo, int pageSize);
+    }
+}
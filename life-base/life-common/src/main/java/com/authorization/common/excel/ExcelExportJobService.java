@@ -0,0 +1,338 @@
+package com.authorization.common.excel;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.core.util.IdUtil;
+import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.utils.excutor.BackpressurePolicy;
+import com.authorization.utils.excutor.ExecutorManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * 异步导出任务
+ * </p>
+ * 提交后立即返回任务信息，在后台线程中分批读取数据，以流式导出的方式写入临时文件，内存中仅保留一批数据。
+ * 每写入一批数据后在 {@link ExcelViewDecorate#EXCEL_SUCCESS_EXPORT_BROKER} 频道发布进度，完成后发布导出结果，
+ * 失败时在 {@link ExcelViewDecorate#EXCEL_ERROR_EXPORT_BROKER} 频道发布失败原因。
+ * <p>
+ * 导出的文件保存在生成此文件的节点中，超过保留时长后删除。
+ *
+ * @author wangjunming
+ */
+@Slf4j
+public class ExcelExportJobService implements DisposableBean {
+
+    /**
+     * 写入临时文件的缓冲区大小
+     */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    /**
+     * tomcat 的 sendfile 请求属性
+     */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final StringRedisService stringRedisService;
+    private final ThreadPoolExecutor executor;
+    private final Path tempDir;
+    private final int chunkSize;
+    private final long keepMillis;
+    private final ConcurrentMap<String, ExcelExportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param stringRedisService redis工具类，用于发布任务进度
+     * @param tempDir            临时文件目录
+     * @param threads            同时执行的导出任务数量
+     * @param queueSize          等待执行的导出任务数量，超出时提交失败
+     * @param chunkSize          每批读取的数据量
+     * @param keepMinutes        导出完成后文件的保留时长，单位：分钟
+     */
+    public ExcelExportJobService(StringRedisService stringRedisService, Path tempDir, int threads, int queueSize,
+                                 int chunkSize, long keepMinutes) {
+        Assert.isTrue(threads > 0, "导出任务的线程数必须大于0。");
+        Assert.isTrue(chunkSize > 0, "每批读取的数据量必须大于0。");
+        this.stringRedisService = stringRedisService;
+        this.tempDir = tempDir;
+        this.chunkSize = chunkSize;
+        this.keepMillis = TimeUnit.MINUTES.toMillis(keepMinutes);
+        this.executor = ExecutorManager.buildThreadFirstExecutor(threads, threads, 1, TimeUnit.MINUTES, queueSize, "ExcelExportExecutor",
+                BackpressurePolicy.FAIL_FAST, 0, TimeUnit.MILLISECONDS);
+        try {
+            Files.createDirectories(tempDir);
+        } catch (IOException e) {
+            throw new DecorateExcelException("创建导出文件的临时目录失败：" + tempDir);
+        }
+        log.info("Init excel export job, tempDir: {}, threads: {}, chunkSize: {}, keepMinutes: {}", tempDir, threads, chunkSize, keepMinutes);
+    }
+
+    /**
+     * 提交固定列的导出任务
+     *
+     * @param filename  文件名
+     * @param sheetName sheet页名称
+     * @param model     数据集合的数据对象
+     * @param loader    分批读取数据
+     * @return 任务信息
+     */
+    public ExcelExportJob submit(String filename, String sheetName, Class<?> model, ExcelExportJob.ChunkLoader loader) {
+        return submit(filename, rows -> ExcelViewDecorate.createStreamSheet(sheetName, model, rows), loader);
+    }
+
+    /**
+     * 提交动态列的导出任务
+     *
+     * @param filename  文件名
+     * @param sheetName sheet页名称
+     * @param fieldList 列字段编码，列字段名称，列排序
+     * @param loader    分批读取数据
+     * @return 任务信息
+     */
+    public ExcelExportJob submit(String filename, String sheetName, List<ExcelViewDecorate.ExportField> fieldList,
+                                 ExcelExportJob.ChunkLoader loader) {
+        return submit(filename, rows -> ExcelViewDecorate.createStreamSheet(sheetName, fieldList, rows), loader);
+    }
+
+    /**
+     * 获取任务信息
+     *
+     * @param jobId 任务id
+     * @return 任务不存在或已过期时为null
+     */
+    public ExcelExportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * 下载导出完成的文件
+     * <p>
+     * 容器支持 sendfile 时(tomcat 的 NIO/NIO2 连接器，请求属性 {@value #SENDFILE_SUPPORT} 为true)，由容器在响应结束后
+     * 通过 sendfile 直接将文件写入socket，不经过用户态的缓冲区；否则复制到响应的输出流中。
+     *
+     * @param jobId    任务id
+     * @param request  请求
+     * @param response 响应
+     * @throws IOException 写入失败
+     */
+    public void download(String jobId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExcelExportJob job = getSuccessJob(jobId);
+        //设置响应为文件下载
+        response.setContentType("application/force-download");
+        response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(job.getFilename(), StandardCharsets.UTF_8));
+        response.setContentLengthLong(job.getFileSize());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, job.getFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, job.getFileSize());
+            return;
+        }
+        transferTo(job, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * 将导出完成的文件写入目标通道，使用 FileChannel.transferTo ，目标为 SocketChannel 或 FileChannel 时由操作系统直接复制，
+     * 其他通道(如 Channels.newChannel 包装的输出流)由jdk经过用户态的缓冲区复制
+     *
+     * @param jobId  任务id
+     * @param target 目标通道，由调用方关闭
+     * @return 写入的字节数
+     * @throws IOException 写入失败
+     */
+    public long transferTo(String jobId, WritableByteChannel target) throws IOException {
+        return transferTo(getSuccessJob(jobId), target);
+    }
+
+    /**
+     * 删除超过保留时长的任务及文件
+     */
+    @Scheduled(fixedDelay = 60_000L)
+    public void cleanExpiredJobs() {
+        long expireBefore = System.currentTimeMillis() - keepMillis;
+        jobs.values().removeIf(job -> {
+            boolean finished = job.getStatus() == ExcelExportJob.Status.SUCCESS || job.getStatus() == ExcelExportJob.Status.FAILED;
+            if (!finished || job.getFinishTime() > expireBefore) {
+                return false;
+            }
+            deleteFile(job.getFile());
+            return true;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        // 先停止执行中的导出，避免删除后又写入临时文件
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("等待导出任务停止超时，临时文件可能未删除：{}", tempDir);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        jobs.values().forEach(job -> deleteFile(job.getFile()));
+        jobs.clear();
+    }
+
+    private ExcelExportJob submit(String filename, Function<Iterator<?>, ExcelViewDecorate.ExcelSheet> sheetFactory,
+                                  ExcelExportJob.ChunkLoader loader) {
+        Assert.notBlank(filename, "文件名不能为空。");
+        Assert.isTrue(filename.endsWith(".xlsx"), "文件名必须是“.xlsx”。");
+        Assert.notNull(loader, "数据源不能为空。");
+        ExcelExportJob job = new ExcelExportJob()
+                .setJobId(IdUtil.fastSimpleUUID())
+                .setFilename(filename)
+                .setStatus(ExcelExportJob.Status.WAITING)
+                .setSubmitTime(System.currentTimeMillis());
+        jobs.put(job.getJobId(), job);
+        try {
+            executor.execute(() -> export(job, sheetFactory, loader));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw new DecorateExcelException("导出任务过多，请稍后再试。");
+        }
+        return job;
+    }
+
+    /**
+     * 执行导出，分批读取的数据逐行写入工作簿，完成后写入临时文件
+     */
+    private void export(ExcelExportJob job, Function<Iterator<?>, ExcelViewDecorate.ExcelSheet> sheetFactory,
+                        ExcelExportJob.ChunkLoader loader) {
+        job.setStatus(ExcelExportJob.Status.RUNNING);
+        publish(ExcelViewDecorate.EXCEL_SUCCESS_EXPORT_BROKER, job);
+        Path file = tempDir.resolve(job.getJobId() + ".xlsx");
+        ExcelViewDecorate view = new ExcelViewDecorate(job.getFilename(), sheetFactory.apply(new ChunkIterator(job, loader)))
+                .setStreaming(true);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE);
+            view.writeTo(outputStream);
+            job.setFile(file).setFileSize(channel.size());
+        } catch (Exception e) {
+            log.error("导出任务执行失败，jobId：{}，文件名：{}", job.getJobId(), job.getFilename(), e);
+            deleteFile(file);
+            job.setErrorMessage(e.getMessage())
+                    .setFinishTime(System.currentTimeMillis())
+                    .setStatus(ExcelExportJob.Status.FAILED);
+            publish(ExcelViewDecorate.EXCEL_ERROR_EXPORT_BROKER, job);
+            return;
+        }
+        job.setFinishTime(System.currentTimeMillis()).setStatus(ExcelExportJob.Status.SUCCESS);
+        log.info("导出任务执行完成，jobId：{}，行数：{}，文件大小：{}，耗时：{}ms", job.getJobId(), job.getRowCount(),
+                job.getFileSize(), job.getFinishTime() - job.getSubmitTime());
+        publish(ExcelViewDecorate.EXCEL_SUCCESS_EXPORT_BROKER, job);
+    }
+
+    private ExcelExportJob getSuccessJob(String jobId) {
+        ExcelExportJob job = jobs.get(jobId);
+        if (Objects.isNull(job) || job.getStatus() != ExcelExportJob.Status.SUCCESS || Objects.isNull(job.getFile())) {
+            throw new DecorateExcelException("导出任务不存在或尚未完成。");
+        }
+        return job;
+    }
+
+    private static long transferTo(ExcelExportJob job, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(job.getFile(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            // 单次 transferTo 可能不会写入全部数据，循环直到写完
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return position;
+        }
+    }
+
+    /**
+     * 发布任务进度，发布失败不影响导出
+     */
+    private void publish(String topic, ExcelExportJob job) {
+        try {
+            stringRedisService.convertAndSend(topic, job);
+        } catch (Exception e) {
+            log.warn("发布导出任务进度失败，jobId：{}，频道：{}", job.getJobId(), topic, e);
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        if (Objects.isNull(file)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除导出的临时文件失败：{}", file, e);
+        }
+    }
+
+    /**
+     * 分批读取数据，每读取一批后发布当前进度
+     */
+    private final class ChunkIterator implements Iterator<Object> {
+
+        private final ExcelExportJob job;
+        private final ExcelExportJob.ChunkLoader loader;
+        private List<?> chunk = Collections.emptyList();
+        private int index;
+        private int pageNo;
+        private boolean lastChunk;
+
+        private ChunkIterator(ExcelExportJob job, ExcelExportJob.ChunkLoader loader) {
+            this.job = job;
+            this.loader = loader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index >= chunk.size()) {
+                if (lastChunk) {
+                    return false;
+                }
+                if (pageNo > 0) {
+                    publish(ExcelViewDecorate.EXCEL_SUCCESS_EXPORT_BROKER, job);
+                }
+                List<?> next = loader.load(++pageNo, chunkSize);
+                chunk = Objects.isNull(next) ? Collections.emptyList() : next;
+                lastChunk = chunk.size() < chunkSize;
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            job.setRowCount(job.getRowCount() + 1);
+            return chunk.get(index++);
+        }
+    }
+}
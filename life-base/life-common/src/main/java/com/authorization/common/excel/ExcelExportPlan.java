@@ -0,0 +1,214 @@
+package com.authorization.common.excel;
+
+import cn.hutool.core.lang.Assert;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * 导出数据行的执行计划
+ * </p>
+ * 每个导出对象的字段只解析一次，getter 编译为函数后缓存，按字段类型选定每列的格式化方式，日期格式化器按格式缓存共用。
+ * 导出数据行时不再进行反射，除单元格的值外不再创建对象。
+ *
+ * @author wangjunming
+ */
+@Slf4j
+final class ExcelExportPlan {
+
+    /**
+     * 每个类型的字段读取方法，字段名 -> 读取方法
+     */
+    private static final ClassValue<ConcurrentMap<String, PropertyReader>> READERS = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<String, PropertyReader> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * 日期格式 -> 格式化器，DateTimeFormatter 是线程安全的，可共用
+     */
+    private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    /**
+     * 字段不存在时返回空值
+     */
+    private static final PropertyReader ABSENT = new PropertyReader(item -> null, Object.class);
+
+    private final Class<?> type;
+    private final List<PlanColumn> columns;
+
+    private ExcelExportPlan(Class<?> type, List<PlanColumn> columns) {
+        this.type = type;
+        this.columns = columns;
+    }
+
+    /**
+     * 编译导出计划
+     *
+     * @param type        数据对象的类型
+     * @param fields      导出的字段
+     * @param timePattern Date 、 LocalDateTime 的格式
+     * @param datePattern LocalDate 的格式
+     * @param scale       小数的位数
+     * @return ExcelExportPlan
+     */
+    static ExcelExportPlan compile(Class<?> type, List<ExcelViewDecorate.ExportField> fields,
+                                   String timePattern, String datePattern, int scale) {
+        DateTimeFormatter timeFormatter = formatter(timePattern);
+        DateTimeFormatter dateFormatter = formatter(datePattern);
+        DateTimeFormatter zonedTimeFormatter = timeFormatter.withZone(ZoneId.systemDefault());
+        List<PlanColumn> columns = fields.stream().map(field -> {
+            String fieldCode = field.getFieldCode();
+            Assert.notBlank(fieldCode, "未找到此{}对应的字段值", fieldCode);
+            PropertyReader reader = READERS.get(type).computeIfAbsent(fieldCode, code -> createReader(type, code));
+            return new PlanColumn(field, reader.getter(),
+                    formatterFor(reader.propertyType(), timeFormatter, dateFormatter, zonedTimeFormatter, scale));
+        }).toList();
+        return new ExcelExportPlan(type, columns);
+    }
+
+    /**
+     * 当前计划是否适用于此数据对象
+     *
+     * @param item 数据对象
+     * @return 类型一致时为true
+     */
+    boolean supports(Object item) {
+        return item == null || item.getClass() == type;
+    }
+
+    int columnCount() {
+        return columns.size();
+    }
+
+    /**
+     * 获取某一列的导出值，读取失败时返回空字符串
+     *
+     * @param item   数据对象
+     * @param column 第几列
+     * @return String
+     */
+    String value(Object item, int column) {
+        if (item == null) {
+            return "";
+        }
+        PlanColumn planColumn = columns.get(column);
+        try {
+            Object value = planColumn.getter().apply(item);
+            return value == null ? "" : planColumn.formatter().apply(value);
+        } catch (Exception e) {
+            log.error("导出数据行异常，字段名：{}，此数据对象信息：{}，赋值异常", JSONUtil.toJsonStr(planColumn.field()), JSONUtil.toJsonStr(item), e);
+            return "";
+        }
+    }
+
+    private static DateTimeFormatter formatter(String pattern) {
+        return FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+    }
+
+    /**
+     * 按字段类型选定格式化方式，与字段类型的判断方式保持一致
+     */
+    private static Function<Object, String> formatterFor(Class<?> propertyType, DateTimeFormatter timeFormatter,
+                                                         DateTimeFormatter dateFormatter, DateTimeFormatter zonedTimeFormatter,
+                                                         int scale) {
+        if (BigDecimal.class.isAssignableFrom(propertyType)) {
+            return value -> ((BigDecimal) value).setScale(scale, RoundingMode.HALF_UP).toString();
+        } else if (Date.class.isAssignableFrom(propertyType)) {
+            // java.sql.Date 不支持 toInstant，使用毫秒数转换
+            return value -> zonedTimeFormatter.format(Instant.ofEpochMilli(((Date) value).getTime()));
+        } else if (LocalDate.class.isAssignableFrom(propertyType)) {
+            return value -> ((LocalDate) value).format(dateFormatter);
+        } else if (LocalDateTime.class.isAssignableFrom(propertyType)) {
+            return value -> ((LocalDateTime) value).format(timeFormatter);
+        }
+        return String::valueOf;
+    }
+
+    /**
+     * 解析字段的 getter，优先编译为函数，失败时使用 MethodHandle 调用
+     */
+    private static PropertyReader createReader(Class<?> type, String fieldCode) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, fieldCode);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            log.warn("导出对象{}中未找到字段{}的get方法，此列导出为空", type.getName(), fieldCode);
+            return ABSENT;
+        }
+        Method readMethod = descriptor.getReadMethod();
+        try {
+            return new PropertyReader(lambdaGetter(type, readMethod), readMethod.getReturnType());
+        } catch (Throwable e) {
+            log.debug("编译{}#{}的get方法失败，使用MethodHandle调用", type.getName(), readMethod.getName(), e);
+            return new PropertyReader(handleGetter(readMethod), readMethod.getReturnType());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> lambdaGetter(Class<?> type, Method readMethod) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflect(readMethod);
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                handle.type().wrap());
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    private static Function<Object, Object> handleGetter(Method readMethod) {
+        MethodHandle handle;
+        try {
+            ReflectionUtils.makeAccessible(readMethod);
+            handle = MethodHandles.lookup().unreflect(readMethod)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new DecorateExcelException("无法读取导出对象的字段：" + readMethod.getName());
+        }
+        return item -> {
+            try {
+                return handle.invokeExact(item);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new DecorateExcelException("读取导出对象的字段失败：" + readMethod.getName());
+            }
+        };
+    }
+
+    /**
+     * 字段的读取方法及字段类型
+     */
+    private record PropertyReader(Function<Object, Object> getter, Class<?> propertyType) {
+    }
+
+    /**
+     * 每一列的字段、读取方法及格式化方式
+     */
+    private record PlanColumn(ExcelViewDecorate.ExportField field, Function<Object, Object> getter,
+                                      Function<Object, String> formatter) {
+    }
+}
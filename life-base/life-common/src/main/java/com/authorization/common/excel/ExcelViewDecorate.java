@@ -7,6 +7,8 @@ import cn.hutool.core.lang.Assert;
 import cn.hutool.core.text.CharSequenceUtil;
 import cn.hutool.json.JSONUtil;
 import cn.hutool.poi.excel.style.StyleUtil;
+import com.authorization.utils.excutor.BackpressurePolicy;
+import com.authorization.utils.excutor.ExecutorManager;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -15,11 +17,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.hssf.util.HSSFColor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddressList;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFClientAnchor;
 import org.apache.poi.xssf.usermodel.XSSFDataValidation;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.cglib.beans.BeanMap;
 import org.springframework.web.servlet.view.document.AbstractXlsxView;
 
 import javax.servlet.http.HttpServletRequest;
@@ -27,16 +29,16 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -71,6 +73,15 @@ public class ExcelViewDecorate extends AbstractXlsxView {
      */
     int SCALE = 2;
 
+    /**
+     * 流式导出时默认在内存中保留的行数
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 500;
+
+    /**
+     * 默认根据前多少行数据计算列宽
+     */
+    public static final int DEFAULT_WIDTH_SAMPLE_ROWS = 100;
 
     /**
      * 导出错误文件的文件桶
@@ -96,6 +107,28 @@ public class ExcelViewDecorate extends AbstractXlsxView {
      */
     private List<ExcelSheet> sheets = new ArrayList<>();
 
+    /**
+     * 是否使用流式导出，流式导出时内存中仅保留 windowSize 行，超出的行写入临时文件，导出的数据量不影响内存占用
+     */
+    private boolean streaming = false;
+
+    /**
+     * 流式导出时内存中保留的行数
+     */
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+
+    /**
+     * 根据标题及前多少行数据计算列宽，之后的数据行不再参与计算
+     */
+    private int widthSampleRows = DEFAULT_WIDTH_SAMPLE_ROWS;
+
+    /**
+     * 多个sheet页时是否并行准备数据行，仅对 data 为集合的sheet页生效，流式数据源的sheet页仍逐行导出。
+     * <p>
+     * 数据行在 {@link SheetExecutorHolder} 的线程池中格式化，之后在当前线程中依次写入工作簿；格式化后的数据行会在内存中保留到写入完成。
+     */
+    private boolean parallel = false;
+
     @Getter
     @Setter
     @Accessors(chain = true)
@@ -130,6 +163,16 @@ public class ExcelViewDecorate extends AbstractXlsxView {
          */
         private Collection<?> data;
 
+        /**
+         * 流式数据源，与 data 二选一，逐行读取，每个sheet页只能导出一次
+         */
+        private Iterator<?> rows;
+
+        /**
+         * 流式数据源对应的资源，例如 Stream 或 mybatis 的 Cursor，导出完成后关闭
+         */
+        private AutoCloseable rowsSource;
+
         /**
          * 导出的对象
          */
@@ -152,6 +195,46 @@ public class ExcelViewDecorate extends AbstractXlsxView {
             fillCustomizeTitles(this, fieldList);
         }
 
+        /**
+         * 设置流式数据源
+         *
+         * @param rows   逐行读取的数据
+         * @param source 导出完成后需要关闭的资源，可为空
+         * @return ExcelSheet
+         */
+        private ExcelSheet streamRows(Iterator<?> rows, AutoCloseable source) {
+            Assert.notNull(rows, "数据源不能为空。");
+            this.rows = rows;
+            this.rowsSource = source;
+            return this;
+        }
+
+        /**
+         * 获取需要导出的数据行，流式数据源优先
+         *
+         * @return Iterator
+         */
+        private Iterator<?> rowIterator() {
+            if (Objects.nonNull(rows)) {
+                return rows;
+            }
+            return CollUtil.isEmpty(data) ? Collections.emptyIterator() : data.iterator();
+        }
+
+        /**
+         * 关闭流式数据源
+         */
+        private void closeRows() {
+            if (Objects.isNull(rowsSource)) {
+                return;
+            }
+            try {
+                rowsSource.close();
+            } catch (Exception e) {
+                log.error("关闭excel导出的数据源异常", e);
+            }
+        }
+
         /**
          * 从注解中获取导出字段名
          * <p>
@@ -225,6 +308,82 @@ public class ExcelViewDecorate extends AbstractXlsxView {
         return new ExcelSheet(sheetName, model, data);
     }
 
+    /**
+     * 创建具备固定列的流式数据sheet页
+     *
+     * @param sheetName sheet页名称
+     * @param model     字段集合
+     * @param rows      逐行读取的数据
+     * @return ExcelSheet
+     */
+    public static ExcelSheet createStreamSheet(String sheetName, Class<?> model, Iterator<?> rows) {
+        return new ExcelSheet(sheetName, model, null).streamRows(rows, null);
+    }
+
+    /**
+     * 创建具备固定列的流式数据sheet页，导出完成后关闭 Stream
+     *
+     * @param sheetName sheet页名称
+     * @param model     字段集合
+     * @param rows      数据流
+     * @return ExcelSheet
+     */
+    public static ExcelSheet createStreamSheet(String sheetName, Class<?> model, Stream<?> rows) {
+        return new ExcelSheet(sheetName, model, null).streamRows(rows.iterator(), rows);
+    }
+
+    /**
+     * 创建具备固定列的流式数据sheet页，数据源例如 mybatis 的 Cursor，实现了 AutoCloseable 时导出完成后关闭
+     *
+     * @param sheetName sheet页名称
+     * @param model     字段集合
+     * @param rows      数据源
+     * @return ExcelSheet
+     */
+    public static ExcelSheet createStreamSheet(String sheetName, Class<?> model, Iterable<?> rows) {
+        return new ExcelSheet(sheetName, model, null).streamRows(rows.iterator(), closeable(rows));
+    }
+
+    /**
+     * 创建自定义列的流式数据sheet页
+     *
+     * @param sheetName sheet页名称
+     * @param fieldList 字段集合
+     * @param rows      逐行读取的数据
+     * @return ExcelSheet
+     */
+    public static ExcelSheet createStreamSheet(String sheetName, List<ExportField> fieldList, Iterator<?> rows) {
+        return new ExcelSheet(sheetName, fieldList, null).streamRows(rows, null);
+    }
+
+    /**
+     * 创建自定义列的流式数据sheet页，导出完成后关闭 Stream
+     *
+     * @param sheetName sheet页名称
+     * @param fieldList 字段集合
+     * @param rows      数据流
+     * @return ExcelSheet
+     */
+    public static ExcelSheet createStreamSheet(String sheetName, List<ExportField> fieldList, Stream<?> rows) {
+        return new ExcelSheet(sheetName, fieldList, null).streamRows(rows.iterator(), rows);
+    }
+
+    /**
+     * 创建自定义列的流式数据sheet页，数据源例如 mybatis 的 Cursor，实现了 AutoCloseable 时导出完成后关闭
+     *
+     * @param sheetName sheet页名称
+     * @param fieldList 字段集合
+     * @param rows      数据源
+     * @return ExcelSheet
+     */
+    public static ExcelSheet createStreamSheet(String sheetName, List<ExportField> fieldList, Iterable<?> rows) {
+        return new ExcelSheet(sheetName, fieldList, null).streamRows(rows.iterator(), closeable(rows));
+    }
+
+    private static AutoCloseable closeable(Object source) {
+        return source instanceof AutoCloseable autoCloseable ? autoCloseable : null;
+    }
+
     private ExcelViewDecorate() {
     }
 
@@ -274,6 +433,26 @@ public class ExcelViewDecorate extends AbstractXlsxView {
         sheets = Collections.singletonList(sheet);
     }
 
+    /**
+     * 创建工作簿，流式导出时使用 SXSSFWorkbook，否则使用 XSSFWorkbook
+     */
+    @Override
+    protected Workbook createWorkbook(Map<String, Object> model, HttpServletRequest request) {
+        return newWorkbook();
+    }
+
+    /**
+     * 直接写入响应流，流式导出时写入完成后删除临时文件
+     */
+    @Override
+    protected void renderWorkbook(Workbook workbook, HttpServletResponse response) throws IOException {
+        try {
+            super.renderWorkbook(workbook, response);
+        } finally {
+            dispose(workbook);
+        }
+    }
+
     /**
      * springmvc调用的方法，接口将直接进行下载
      *
@@ -285,9 +464,7 @@ public class ExcelViewDecorate extends AbstractXlsxView {
      */
     @Override
     protected void buildExcelDocument(Map<String, Object> map, Workbook workbook, HttpServletRequest request, HttpServletResponse response) throws Exception {
-        for (ExcelSheet sheet : sheets) {
-            buildExcel(workbook, sheet);
-        }
+        buildSheets(workbook);
         //设置响应为文件下载
         response.setContentType("application/force-download");
         response.setHeader("Content-disposition", "attachment;filename=" + URLEncoder.encode(filename, StandardCharsets.UTF_8));
@@ -323,21 +500,141 @@ public class ExcelViewDecorate extends AbstractXlsxView {
      */
     public byte[] buildExcelBytes() {
         //用于创建 .xlsx 的 工作簿类。
-        Workbook workbook = new XSSFWorkbook();
-        for (ExcelSheet sheet : sheets) {
-            buildExcel(workbook, sheet);
-        }
+        Workbook workbook = newWorkbook();
+        buildSheets(workbook);
         excelBytes = writeOuts(workbook);
         return excelBytes;
     }
 
     /**
-     * 创建excel表格
+     * 构建excel并直接写入输出流，不在内存中保留整个文件，输出流由调用方关闭
+     * <p>
+     * 配合流式导出使用时，内存中仅保留 windowSize 行
+     *
+     * @param outputStream 输出流，例如 response.getOutputStream()
+     * @throws IOException 写入失败
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        Workbook workbook = newWorkbook();
+        try {
+            buildSheets(workbook);
+            workbook.write(outputStream);
+            outputStream.flush();
+        } finally {
+            dispose(workbook);
+            workbook.close();
+        }
+    }
+
+    /**
+     * 创建工作簿，流式导出时使用 SXSSFWorkbook
+     *
+     * @return Workbook
+     */
+    private Workbook newWorkbook() {
+        if (!streaming) {
+            return new XSSFWorkbook();
+        }
+        Assert.isTrue(windowSize > 0, "流式导出保留的行数必须大于0。");
+        SXSSFWorkbook workbook = new SXSSFWorkbook(windowSize);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+
+    /**
+     * 删除流式导出产生的临时文件
      *
      * @param workbook 工作簿
-     * @param param    所需参数
      */
-    private void buildExcel(Workbook workbook, ExcelSheet param) {
+    private static void dispose(Workbook workbook) {
+        if (workbook instanceof SXSSFWorkbook sxssfWorkbook) {
+            sxssfWorkbook.dispose();
+        }
+    }
+
+    /**
+     * 创建全部的sheet页，同一个工作簿的sheet页共用样式
+     *
+     * @param workbook 工作簿
+     */
+    private void buildSheets(Workbook workbook) {
+        StyleRegistry styles = new StyleRegistry(workbook);
+        List<CompletableFuture<List<String[]>>> preparedRows = prepareSheets();
+        for (int i = 0; i < sheets.size(); i++) {
+            buildExcel(workbook, styles, sheets.get(i), preparedRows.get(i));
+        }
+    }
+
+    /**
+     * 并行准备各个sheet页的数据行，工作簿不是线程安全的，只在线程池中格式化数据，不操作工作簿
+     *
+     * @return 每个sheet页对应的数据行，不需要并行准备时为null
+     */
+    private List<CompletableFuture<List<String[]>>> prepareSheets() {
+        List<CompletableFuture<List<String[]>>> preparedRows = new ArrayList<>(sheets.size());
+        boolean prepare = parallel && sheets.size() > 1;
+        for (ExcelSheet sheet : sheets) {
+            if (!prepare || Objects.nonNull(sheet.getRows()) || CollUtil.isEmpty(sheet.getData())) {
+                preparedRows.add(null);
+                continue;
+            }
+            List<ExportField> fields = sheet.getFields();
+            Collection<?> data = sheet.getData();
+            preparedRows.add(CompletableFuture.supplyAsync(() -> prepareRows(fields, data), SheetExecutorHolder.EXECUTOR));
+        }
+        return preparedRows;
+    }
+
+    /**
+     * 格式化sheet页的全部数据行
+     *
+     * @param fields   字段名信息
+     * @param dataList 数据集合
+     * @return 每一行的单元格内容
+     */
+    private List<String[]> prepareRows(List<ExportField> fields, Collection<?> dataList) {
+        List<String[]> rows = new ArrayList<>(dataList.size());
+        ExcelExportPlan plan = null;
+        for (Object item : dataList) {
+            if (plan == null || !plan.supports(item)) {
+                plan = compilePlan(item, fields);
+            }
+            String[] values = new String[plan.columnCount()];
+            for (int column = 0; column < values.length; column++) {
+                values[column] = plan.value(item, column);
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+
+    /**
+     * 等待并行准备的数据行
+     *
+     * @param future 数据行
+     * @return 每一行的单元格内容
+     */
+    private static List<String[]> joinPrepared(CompletableFuture<List<String[]>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DecorateExcelException("准备excel数据行失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 创建excel表格
+     *
+     * @param workbook     工作簿
+     * @param styles       工作簿的样式
+     * @param param        所需参数
+     * @param preparedRows 已并行准备的数据行，为null时逐行读取数据
+     */
+    private void buildExcel(Workbook workbook, StyleRegistry styles, ExcelSheet param,
+                            CompletableFuture<List<String[]>> preparedRows) {
         Sheet sheet;
         if (CharSequenceUtil.isNotBlank(param.getSheetName())) {
             sheet = workbook.createSheet(param.getSheetName());
@@ -346,24 +643,35 @@ public class ExcelViewDecorate extends AbstractXlsxView {
         }
         List<ExportField> fields = param.getFields();
         log.debug("标题行的信息是：{}", JSONUtil.toJsonStr(fields));
+        ColumnWidths widths = new ColumnWidths(fields.size());
         int rowNumber = 0;
         if (CollUtil.isNotEmpty(fields)) {
             // 创建标题行-仅单行的标题
-            createHeader(sheet, workbook, rowNumber, fields);
+            createHeader(sheet, styles, widths, rowNumber, fields);
             ++rowNumber;
         }
-        Collection<?> dataList = param.getData();
-        if (CollUtil.isEmpty(dataList)) {
+        if (Objects.nonNull(preparedRows)) {
+            createPreparedDataLine(sheet, styles, widths, rowNumber, joinPrepared(preparedRows));
+            widths.apply(sheet);
             return;
         }
-        //创建仅导出的数据行信息
-        createDataLine(workbook, sheet, rowNumber, fields, param, dataList);
+        try {
+            Iterator<?> dataList = param.rowIterator();
+            if (dataList.hasNext()) {
+                //创建仅导出的数据行信息
+                createDataLine(sheet, styles, widths, rowNumber, fields, param, dataList);
+            }
+        } finally {
+            param.closeRows();
+        }
+        //所有行创建完成后统一设置列宽
+        widths.apply(sheet);
     }
 
     /**
      * 创建标题行
      */
-    private void createHeader(Sheet sheet, Workbook workbook, int rowNumber, List<ExportField> fields) {
+    private void createHeader(Sheet sheet, StyleRegistry styles, ColumnWidths widths, int rowNumber, List<ExportField> fields) {
         //进行构建表头
         Row header = sheet.createRow(rowNumber);
         //设置行高
@@ -378,36 +686,25 @@ public class ExcelViewDecorate extends AbstractXlsxView {
             //设置当前单元格的内容
             cell.setCellValue(fieldName);
             //创建样式
-            createHeaderCellStyleFont(cell, workbook, exportField);
+            createHeaderCellStyleFont(cell, styles, exportField);
             //创建批注
             createHeaderComment(cell, sheet, exportField);
             //创建下拉框选项值
-            creatHeadSelectCellStyle(workbook, sheet, rowNumber, column, exportField);
-            //设置单元格宽度
-            sheet.setColumnWidth(column, getColumnWidth(cell));
+            creatHeadSelectCellStyle(sheet, rowNumber, column, exportField);
+            //记录标题的宽度
+            widths.sample(column, fieldName);
         }
     }
 
-    /**
-     * 获取默认的宽度
-     *
-     * @param cell 单元格信息
-     * @return int
-     */
-    private int getColumnWidth(Cell cell) {
-        return 9000;
-    }
-
     /**
      * 创建下拉框的值
      *
-     * @param workbook    工作簿
      * @param sheet       标签页
      * @param rowNumber   第几行
      * @param column      第几列
      * @param exportField 字段信息
      */
-    private void creatHeadSelectCellStyle(Workbook workbook, Sheet sheet, int rowNumber, int column, ExportField exportField) {
+    private void creatHeadSelectCellStyle(Sheet sheet, int rowNumber, int column, ExportField exportField) {
         List<String> fieldCodeSelect = exportField.getFieldCodeSelect();
         if (CollUtil.isEmpty(fieldCodeSelect)) {
             return;
@@ -431,20 +728,25 @@ public class ExcelViewDecorate extends AbstractXlsxView {
      * 设置标题样式和颜色
      *
      * @param cell        单元格
-     * @param workbook    工作簿
+     * @param styles      工作簿的样式
      * @param exportField 是否必填，如果是必填项则字体颜色是红色
      */
-    private void createHeaderCellStyleFont(Cell cell, Workbook workbook, ExportField exportField) {
+    private void createHeaderCellStyleFont(Cell cell, StyleRegistry styles, ExportField exportField) {
+        cell.setCellStyle(styles.header(!Boolean.FALSE.equals(exportField.getRequired())));
+    }
+
+    /**
+     * 创建标题样式
+     *
+     * @param workbook 工作簿
+     * @param required 是否必填，如果是必填项则字体颜色是红色
+     * @return CellStyle
+     */
+    private CellStyle getHeaderStyle(Workbook workbook, boolean required) {
         CellStyle headCellStyle = StyleUtil.createHeadCellStyle(workbook);
         StyleUtil.setAlign(headCellStyle, HorizontalAlignment.LEFT, VerticalAlignment.CENTER);
-        Boolean required = exportField.getRequired();
-        if (Boolean.FALSE.equals(required)) {
-            headCellStyle.setFont(blackFont(workbook));
-            cell.setCellStyle(headCellStyle);
-            return;
-        }
-        headCellStyle.setFont(redFont(workbook));
-        cell.setCellStyle(headCellStyle);
+        headCellStyle.setFont(required ? redFont(workbook) : blackFont(workbook));
+        return headCellStyle;
     }
 
     /**
@@ -541,37 +843,36 @@ public class ExcelViewDecorate extends AbstractXlsxView {
     /**
      * 创建数据行信息
      *
-     * @param workbook  工作簿
      * @param sheet     标签页
+     * @param styles    工作簿的样式
+     * @param widths    列宽
      * @param rowNumber 需要创建第几行
      * @param fields    字段名信息
      * @param param     excel导出所需要的相关参数
-     * @param dataList  数据集合
+     * @param dataList  数据行
      */
-    private void createDataLine(Workbook workbook, Sheet sheet, int rowNumber,
-                                List<ExportField> fields, ExcelSheet param, Collection<?> dataList) {
-        if (CollUtil.isEmpty(dataList)) {
-            return;
-        }
+    private void createDataLine(Sheet sheet, StyleRegistry styles, ColumnWidths widths, int rowNumber,
+                                List<ExportField> fields, ExcelSheet param, Iterator<?> dataList) {
+        CellStyle lineStyle = styles.line();
+        //仅前 widthSampleRows 行参与列宽的计算
+        int sampleEndRow = rowNumber + Math.max(0, widthSampleRows);
+        //导出计划按数据对象的类型编译，数据对象的类型变化时重新获取
+        ExcelExportPlan plan = null;
         //构建数据行
-        for (Object item : dataList) {
-            BeanMap beanMap = BeanMap.create(item);
+        while (dataList.hasNext()) {
+            Object item = dataList.next();
+            if (plan == null || !plan.supports(item)) {
+                plan = compilePlan(item, fields);
+            }
             Row row = sheet.createRow(rowNumber);
-            for (int column = 0; column < fields.size(); column++) {
-                ExportField exportField = fields.get(column);
-                String fieldCode = exportField.getFieldCode();
-                Assert.notBlank(fieldCode, "未找到此{}对应的字段值", fieldCode);
+            for (int column = 0; column < plan.columnCount(); column++) {
                 Cell cell = row.createCell(column);
-                String filedValue;
-                try {
-                    filedValue = getValue(item, beanMap, fieldCode, param);
-                } catch (Exception e) {
-                    log.error("导出数据行异常，字段名：{}，此数据对象信息：{}，赋值异常", JSONUtil.toJsonStr(exportField), JSONUtil.toJsonStr(beanMap), e);
-                    filedValue = "";
-                }
-                cell.setCellStyle(getLineStyle(workbook));
+                String filedValue = plan.value(item, column);
+                cell.setCellStyle(lineStyle);
                 cell.setCellValue(filedValue);
-                sheet.setColumnWidth(column, getColumnWidth(cell));
+                if (rowNumber < sampleEndRow) {
+                    widths.sample(column, filedValue);
+                }
             }
             ++rowNumber;
         }
@@ -579,96 +880,56 @@ public class ExcelViewDecorate extends AbstractXlsxView {
     }
 
     /**
-     * 获取数据行的单元格样式
+     * 写入已准备好的数据行
      *
-     * @param workbook 工作簿
-     * @return CellStyle
+     * @param sheet     标签页
+     * @param styles    工作簿的样式
+     * @param widths    列宽
+     * @param rowNumber 需要创建第几行
+     * @param dataList  每一行的单元格内容
      */
-    private CellStyle getLineStyle(Workbook workbook) {
-        CellStyle lineCellStyle = StyleUtil.createDefaultCellStyle(workbook);
-        StyleUtil.setAlign(lineCellStyle, HorizontalAlignment.LEFT, VerticalAlignment.CENTER);
-        return lineCellStyle;
+    private void createPreparedDataLine(Sheet sheet, StyleRegistry styles, ColumnWidths widths, int rowNumber,
+                                        List<String[]> dataList) {
+        CellStyle lineStyle = styles.line();
+        int sampleEndRow = rowNumber + Math.max(0, widthSampleRows);
+        for (String[] values : dataList) {
+            Row row = sheet.createRow(rowNumber);
+            for (int column = 0; column < values.length; column++) {
+                Cell cell = row.createCell(column);
+                cell.setCellStyle(lineStyle);
+                cell.setCellValue(values[column]);
+                if (rowNumber < sampleEndRow) {
+                    widths.sample(column, values[column]);
+                }
+            }
+            ++rowNumber;
+        }
     }
 
     /**
-     * 获取数据行的错误单元格样式，颜色为黄色
+     * 获取数据行的单元格样式
      *
      * @param workbook 工作簿
      * @return CellStyle
      */
-    private CellStyle getLineWarnStyle(Workbook workbook) {
+    private CellStyle getLineStyle(Workbook workbook) {
         CellStyle lineCellStyle = StyleUtil.createDefaultCellStyle(workbook);
         StyleUtil.setAlign(lineCellStyle, HorizontalAlignment.LEFT, VerticalAlignment.CENTER);
-        StyleUtil.setColor(lineCellStyle, HSSFColor.HSSFColorPredefined.YELLOW.getIndex(), FillPatternType.SOLID_FOREGROUND);
         return lineCellStyle;
     }
 
     /**
-     * 获取当前集合对象对应的字段值
+     * 获取数据对象的导出计划，字段的读取方法按类型缓存
      *
-     * @param beanMap   当前对象的字段与值的map
-     * @param fieldCode 字段名
-     * @param param     设置参数
-     * @return String
+     * @param item   数据对象
+     * @param fields 字段名信息
+     * @return ExcelExportPlan
      */
-    private String getValue(Object item, BeanMap beanMap, String fieldCode, ExcelSheet param) {
-        String value = "";
-        Object obj = beanMap.get(fieldCode);
-        if (obj == null) {
-            return value;
-        }
-        Class<?> propertyType = beanMap.getPropertyType(fieldCode);
-        if (BigDecimal.class.isAssignableFrom(propertyType)) {
-            value = ((BigDecimal) obj).setScale(SCALE, RoundingMode.HALF_UP).toString();
-        } else if (Date.class.isAssignableFrom(propertyType)) {
-            value = new SimpleDateFormat(TIME_PATTERN).format(obj);
-        } else if (LocalDate.class.isAssignableFrom(propertyType)) {
-            value = ((LocalDate) obj).format(DateTimeFormatter.ofPattern(DATE_PATTERN));
-        } else if (LocalDateTime.class.isAssignableFrom(propertyType)) {
-            value = ((LocalDateTime) obj).format(DateTimeFormatter.ofPattern(TIME_PATTERN));
-        } else {
-            value = (String.valueOf(obj));
-        }
-        return value;
+    private ExcelExportPlan compilePlan(Object item, List<ExportField> fields) {
+        Class<?> type = item == null ? Object.class : item.getClass();
+        return ExcelExportPlan.compile(type, fields, TIME_PATTERN, DATE_PATTERN, SCALE);
     }
 
-    /**
-     * 为当前单元格设置不同的value值。
-     *
-     * @param cell      当前单元格
-     * @param item      数据信息
-     * @param beanMap   实体类信息
-     * @param fieldCode 字段名
-     * @param param     参数信息
-     */
-    private void setDataTypeValue(Cell cell, Object item, BeanMap beanMap, String fieldCode, ExcelSheet param) {
-        Object obj = beanMap.get(fieldCode);
-        if (obj == null) {
-            cell.setCellValue(CharSequenceUtil.EMPTY);
-            return;
-        }
-        Class<?> propertyType = beanMap.getPropertyType(fieldCode);
-        if (String.class.isAssignableFrom(propertyType)) {
-            cell.setCellValue(obj.toString());
-        } else if (Integer.class.isAssignableFrom(propertyType)
-                || Long.class.isAssignableFrom(propertyType)
-                || BigDecimal.class.isAssignableFrom(propertyType)
-        ) {
-            cell.setCellValue(Double.parseDouble(obj.toString()));
-        } else if (Boolean.class.isAssignableFrom(propertyType)) {
-            cell.setCellValue(Boolean.parseBoolean(obj.toString()));
-        } else if (Date.class.isAssignableFrom(propertyType)) {
-            cell.setCellValue(new SimpleDateFormat(DATE_PATTERN).format(obj));
-        } else if (LocalDate.class.isAssignableFrom(propertyType)) {
-            cell.setCellValue(((LocalDate) obj).format(DateTimeFormatter.ofPattern(DATE_PATTERN)));
-        } else if (LocalDateTime.class.isAssignableFrom(propertyType)) {
-            cell.setCellValue(((LocalDateTime) obj).format(DateTimeFormatter.ofPattern(DATE_PATTERN)));
-        } else {
-            cell.setCellValue(obj.toString());
-        }
-    }
-
-
     /**
      * 将 workbook 转换为 字节数组
      *
@@ -720,6 +981,121 @@ public class ExcelViewDecorate extends AbstractXlsxView {
         return fileAbsolutePath;
     }
 
+    /**
+     * 并行准备数据行的线程池，第一次使用时创建。
+     * <p>
+     * 线程数为 CPU 核数的一半，所有导出共用，避免大量导出占满 CPU 影响请求线程；超出的任务在队列中等待，
+     * 队列已满时由导出的请求线程自己准备数据行，导出变慢但不会失败。
+     */
+    private static final class SheetExecutorHolder {
+
+        private static final int POOL_SIZE = Math.max(1, ExecutorManager.getCpuProcessors() / 2);
+
+        private static final ThreadPoolExecutor EXECUTOR = ExecutorManager.buildThreadFirstExecutor(
+                POOL_SIZE, POOL_SIZE, 1, TimeUnit.MINUTES, 1 << 10, "ExcelSheetExecutor",
+                BackpressurePolicy.CALLER_RUNS, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 同一个工作簿共用的单元格样式，每种样式仅在第一次使用时创建一次，避免超出excel的样式数量限制
+     */
+    private final class StyleRegistry {
+
+        private final Workbook workbook;
+        private CellStyle headerStyle;
+        private CellStyle requiredHeaderStyle;
+        private CellStyle lineStyle;
+
+        private StyleRegistry(Workbook workbook) {
+            this.workbook = workbook;
+        }
+
+        /**
+         * 标题样式
+         *
+         * @param required 是否必填
+         * @return CellStyle
+         */
+        private CellStyle header(boolean required) {
+            if (required) {
+                if (requiredHeaderStyle == null) {
+                    requiredHeaderStyle = getHeaderStyle(workbook, true);
+                }
+                return requiredHeaderStyle;
+            }
+            if (headerStyle == null) {
+                headerStyle = getHeaderStyle(workbook, false);
+            }
+            return headerStyle;
+        }
+
+        /**
+         * 数据行样式
+         */
+        private CellStyle line() {
+            if (lineStyle == null) {
+                lineStyle = getLineStyle(workbook);
+            }
+            return lineStyle;
+        }
+    }
+
+    /**
+     * 根据标题及抽样的数据行计算列宽，按显示宽度计算，中文等宽字符算作两个字符
+     */
+    private static final class ColumnWidths {
+
+        /**
+         * 最小列宽，单位：字符
+         */
+        private static final int MIN_CHARS = 10;
+        /**
+         * 最大列宽，单位：字符
+         */
+        private static final int MAX_CHARS = 60;
+        /**
+         * 内容两侧预留的宽度，单位：字符
+         */
+        private static final int PADDING_CHARS = 2;
+
+        private final int[] chars;
+
+        private ColumnWidths(int columns) {
+            this.chars = new int[columns];
+        }
+
+        /**
+         * 记录单元格内容的宽度
+         *
+         * @param column 第几列
+         * @param value  单元格内容
+         */
+        private void sample(int column, String value) {
+            if (value == null || column >= chars.length) {
+                return;
+            }
+            int width = 0;
+            for (int i = 0; i < value.length() && width < MAX_CHARS; i++) {
+                width += value.charAt(i) > 0xFF ? 2 : 1;
+            }
+            if (width > chars[column]) {
+                chars[column] = width;
+            }
+        }
+
+        /**
+         * 设置列宽，excel中列宽的单位是 1/256 个字符
+         *
+         * @param sheet 标签页
+         */
+        private void apply(Sheet sheet) {
+            for (int column = 0; column < chars.length; column++) {
+                int width = Math.min(MAX_CHARS, Math.max(MIN_CHARS, chars[column] + PADDING_CHARS));
+                sheet.setColumnWidth(column, width * 256);
+            }
+        }
+    }
+
     /**
      * excel的标题行信息
      */
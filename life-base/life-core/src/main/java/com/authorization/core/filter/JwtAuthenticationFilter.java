@@ -1,14 +1,22 @@
 package com.authorization.core.filter;
 
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import cn.hutool.json.JSONUtil;
 import com.authorization.core.entity.UserDetail;
 import com.authorization.utils.json.JsonHelper;
 import com.authorization.utils.jwt.Jwts;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.JWSVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,22 +27,57 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 每一次请求将从gateway中获取前端的token，gateway解析为每一个服务所使用的JWT-token请求头中获取token，并解析为当前登录用户信息。
+ * <p>
+ * 校验通过的用户信息以请求头的SHA-256摘要为key缓存在本地，相同的请求头不再重复解析、验签及反序列化；
+ * 缓存中不保存原始的jwtToken，也不会缓存验签失败的请求头。命中、未命中、淘汰次数通过 micrometer 以 cache=core.verified-jwt 暴露。
  */
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter implements InitializingBean {
 
+    public static final String CACHE_NAME = "core.verified-jwt";
+
     @Value(Jwts.SECRET_EXPRESS)
     private String secret;
+    /**
+     * 是否开启已验签jwtToken的本地缓存
+     */
+    @Value("${auth-server.jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+    /**
+     * 本地缓存的最大数量
+     */
+    @Value("${auth-server.jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+    /**
+     * 本地缓存的存活时长，单位：秒
+     */
+    @Value("${auth-server.jwt.cache.expire-seconds:300}")
+    private long cacheExpireSeconds;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
     private JWSVerifier verifier;
+    private Cache<String, UserDetail> verifiedCache;
 
     @Override
     public void afterPropertiesSet() throws ServletException {
         super.afterPropertiesSet();
         log.info("jwt密钥是：{}", secret);
         verifier = Jwts.verifier(secret);
+        if (cacheEnabled) {
+            verifiedCache = CacheBuilder.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfterWrite(cacheExpireSeconds, TimeUnit.SECONDS)
+                    .recordStats()
+                    .build();
+            meterRegistry.ifAvailable(registry -> GuavaCacheMetrics.monitor(registry, verifiedCache, CACHE_NAME));
+            log.info("Init verified jwt cache, maxSize: {}, expireSeconds: {}", cacheMaxSize, cacheExpireSeconds);
+        }
     }
 
     @Override
@@ -46,17 +89,60 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ini
             chain.doFilter(request, response);
             return;
         }
-        JWSObject jwsObject = Jwts.parse(jwt);
-        if (!Jwts.verify(jwsObject, verifier)) {
-            log.error("Jwt verify failed! JWT: [{}]", jwt);
+        UserDetail userDetail = resolveUserDetail(jwt);
+        if (userDetail == null) {
             chain.doFilter(request, response);
             return;
         }
-        UserDetail userDetail = jwsObject.getPayload().toType(payload -> StrUtil.isBlank(payload.toString()) ?
-                UserDetail.anonymous() : JsonHelper.readValue(payload.toString(), UserDetail.class));
-
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetail, null, null);
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         chain.doFilter(request, response);
     }
+
+    /**
+     * 缓存的命中、未命中、淘汰等统计信息
+     *
+     * @return CacheStats，未开启缓存时为 CacheStats 空值
+     */
+    public CacheStats stats() {
+        return verifiedCache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : verifiedCache.stats();
+    }
+
+    /**
+     * 获取jwtToken对应的用户信息，优先从本地缓存中获取
+     *
+     * @param jwt jwtToken
+     * @return 用户信息，验签失败时为null
+     */
+    private UserDetail resolveUserDetail(String jwt) {
+        if (verifiedCache == null) {
+            return verifyUserDetail(jwt);
+        }
+        // 以摘要作为key，比较的是定长摘要而非原始的jwtToken，也避免在内存中长期持有jwtToken
+        String cacheKey = DigestUtil.sha256Hex(jwt);
+        UserDetail userDetail = verifiedCache.getIfPresent(cacheKey);
+        if (userDetail == null) {
+            userDetail = verifyUserDetail(jwt);
+            if (userDetail != null) {
+                verifiedCache.put(cacheKey, userDetail);
+            }
+        }
+        return userDetail;
+    }
+
+    /**
+     * 解析并验签jwtToken，将载荷解析为用户信息
+     *
+     * @param jwt jwtToken
+     * @return 用户信息，验签失败时为null
+     */
+    private UserDetail verifyUserDetail(String jwt) {
+        JWSObject jwsObject = Jwts.parse(jwt);
+        if (!Jwts.verify(jwsObject, verifier)) {
+            log.error("Jwt verify failed! JWT: [{}]", jwt);
+            return null;
+        }
+        return jwsObject.getPayload().toType(payload -> StrUtil.isBlank(payload.toString()) ?
+                UserDetail.anonymous() : JsonHelper.readValue(payload.toString(), UserDetail.class));
+    }
 }
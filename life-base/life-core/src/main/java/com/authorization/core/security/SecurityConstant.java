@@ -12,6 +12,7 @@ public interface SecurityConstant {
     String USER_ROLE_MENU = "oauth-server:auth:menu:{token}:{roleCode}";
     String TOKEN_STORE = "oauth-server:auth:token-store";
     String PASSWORD_ERROR_COUNT = "oauth-server:auth:password-error-count:{username}";
+    String USER_LOCKED = "oauth-server:auth:user-locked:{username}";
     String SSO_LOGIN = "/oauth/login";
     String SSO_LOGIN_FORM_PAGE = "/login";
     String JSESSIONID = "JSESSIONID";
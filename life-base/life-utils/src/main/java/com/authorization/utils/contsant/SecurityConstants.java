@@ -27,6 +27,16 @@ public class SecurityConstants {
                 .add(SecurityConstants.TOKEN, token).format();
     }
 
+    /**
+     * 用户信息失效的订阅频道，消息体为失效的token，网关等节点收到后清理本地缓存的用户信息
+     */
+    public static final String USER_DETAIL_INVALID_TOPIC = "auth-server.user-detail.invalid";
+
+    /**
+     * 客户端信息变更的订阅频道，消息体为变更的clientId，为空时表示全部变更，认证服务收到后重新加载本地缓存的客户端信息
+     */
+    public static final String CLIENT_CHANGED_TOPIC = "auth-server.client.changed";
+
     /**
      * 前端传参的accessToken参数名称
      */
@@ -0,0 +1,25 @@
+package com.authorization.utils.excutor;
+
+/**
+ * 线程优先的线程池在线程数达到最大值、队列已满时的处理方式
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * 队列已满时立即拒绝，抛出 RejectedExecutionException，并记录拒绝次数
+     */
+    FAIL_FAST,
+    /**
+     * 队列已满时等待一段时间，超时后拒绝，提交任务的线程最多等待 offerTimeout
+     */
+    TIMED_OFFER,
+    /**
+     * 队列已满时由提交任务的线程执行，线程池关闭后拒绝
+     */
+    CALLER_RUNS,
+    /**
+     * 根据任务的排队耗时动态调整允许排队的任务数量：排队耗时超过目标值时按比例减少，未超过时逐个增加（AIMD），
+     * 排队的任务数量达到当前限制时立即拒绝，使排队耗时保持在目标值附近
+     */
+    ADAPTIVE
+}
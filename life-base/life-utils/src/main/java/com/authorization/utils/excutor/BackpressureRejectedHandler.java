@@ -0,0 +1,149 @@
+package com.authorization.utils.excutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程优先的线程池在线程数达到最大值后的处理，按 {@link BackpressurePolicy} 放入队列、拒绝或由提交任务的线程执行。
+ * <p>
+ * 线程池关闭后的任务均拒绝，放入队列后线程池已关闭的任务从队列中移除后拒绝。
+ */
+class BackpressureRejectedHandler implements RejectedExecutionHandler {
+
+    private final String poolName;
+    private final ThreadFirstQueue queue;
+    private final BackpressurePolicy policy;
+    private final long offerTimeoutNanos;
+    private final AdaptiveLimit adaptiveLimit;
+    /**
+     * 拒绝的任务数量
+     */
+    private final LongAdder rejected = new LongAdder();
+    /**
+     * 由提交任务的线程执行的任务数量
+     */
+    private final LongAdder callerRuns = new LongAdder();
+
+    /**
+     * @param poolName      线程池名称
+     * @param queue         工作队列
+     * @param policy        队列已满时的处理方式
+     * @param offerTimeout  TIMED_OFFER 时最多等待的时长；ADAPTIVE 时为目标排队耗时
+     * @param unit          时间单位
+     */
+    BackpressureRejectedHandler(String poolName, ThreadFirstQueue queue, BackpressurePolicy policy, long offerTimeout, TimeUnit unit) {
+        this.poolName = poolName;
+        this.queue = queue;
+        this.policy = policy;
+        this.offerTimeoutNanos = unit.toNanos(offerTimeout);
+        this.adaptiveLimit = policy == BackpressurePolicy.ADAPTIVE
+                ? new AdaptiveLimit(offerTimeoutNanos, queue.remainingCapacity()) : null;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            reject(runnable, "has been shutdown");
+        }
+        if (offer(runnable)) {
+            // 放入队列的同时线程池被关闭，任务可能不会再被执行
+            if (executor.isShutdown() && executor.remove(runnable)) {
+                reject(runnable, "has been shutdown");
+            }
+            return;
+        }
+        if (policy == BackpressurePolicy.CALLER_RUNS) {
+            callerRuns.increment();
+            runnable.run();
+            return;
+        }
+        reject(runnable, "queue is full, policy: " + policy);
+    }
+
+    /**
+     * 任务开始执行时记录排队耗时，用于调整 ADAPTIVE 的排队数量
+     *
+     * @param queueWaitNanos 排队耗时，单位：纳秒
+     */
+    void onQueueWait(long queueWaitNanos) {
+        if (adaptiveLimit != null) {
+            adaptiveLimit.onSample(queueWaitNanos);
+        }
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    /**
+     * ADAPTIVE 当前允许排队的任务数量，其他策略为队列容量
+     */
+    int getQueueLimit() {
+        return adaptiveLimit != null ? adaptiveLimit.limit.get() : queue.size() + queue.remainingCapacity();
+    }
+
+    private boolean offer(Runnable runnable) {
+        switch (policy) {
+            case TIMED_OFFER:
+                try {
+                    return queue.forceOffer(runnable, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case ADAPTIVE:
+                return queue.size() < adaptiveLimit.limit.get() && queue.forceOffer(runnable);
+            default:
+                return queue.forceOffer(runnable);
+        }
+    }
+
+    private void reject(Runnable runnable, String reason) {
+        rejected.increment();
+        throw new RejectedExecutionException("Task " + runnable + " rejected from " + poolName + ", " + reason);
+    }
+
+    /**
+     * 允许排队的任务数量，排队耗时超过目标值时乘以0.9，每个调整周期最多减少一次；未超过目标值时加1，最大为队列容量。
+     * <p>
+     * 按利特尔法则，排队数量 = 处理速率 * 排队耗时，处理速率不变时，排队数量决定了排队耗时。
+     */
+    private static final class AdaptiveLimit {
+
+        private static final int MIN_LIMIT = 1;
+        private static final double DECREASE_RATIO = 0.9;
+
+        private final long targetNanos;
+        private final int maxLimit;
+        private final AtomicInteger limit;
+        private final AtomicLong lastDecreaseTime = new AtomicLong();
+
+        private AdaptiveLimit(long targetNanos, int maxLimit) {
+            this.targetNanos = targetNanos;
+            this.maxLimit = Math.max(MIN_LIMIT, maxLimit);
+            this.limit = new AtomicInteger(this.maxLimit);
+        }
+
+        private void onSample(long queueWaitNanos) {
+            if (queueWaitNanos <= targetNanos) {
+                limit.getAndUpdate(current -> Math.min(maxLimit, current + 1));
+                return;
+            }
+            long now = System.nanoTime();
+            long last = lastDecreaseTime.get();
+            // 减少后需要等待已排队的任务执行完成才能看到效果，每个目标耗时内最多减少一次
+            if (now - last >= targetNanos && lastDecreaseTime.compareAndSet(last, now)) {
+                limit.getAndUpdate(current -> Math.max(MIN_LIMIT, (int) (current * DECREASE_RATIO)));
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.authorization.utils.excutor;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过信号量限制同时执行任务数量的线程池
+ * <p>
+ * 任务提交后立即交给被包装的线程池，在任务所在的线程中获取许可，获取不到时等待，不阻塞提交任务的线程；
+ * 适用于虚拟线程，等待许可的虚拟线程不占用平台线程。
+ */
+public class BoundedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * @param delegate       被包装的线程池
+     * @param maxConcurrency 同时执行任务的最大数量
+     */
+    public BoundedExecutorService(ExecutorService delegate, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        delegate.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                command.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * 同时执行任务的最大数量
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 正在执行的任务数量
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 等待许可的任务数量
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    @Nonnull
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
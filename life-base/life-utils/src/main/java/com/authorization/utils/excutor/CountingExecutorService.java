@@ -0,0 +1,89 @@
+package com.authorization.utils.excutor;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计提交、执行中及已完成任务数量的线程池
+ * <p>
+ * 用于不限制并发数的虚拟线程池，此类线程池没有队列及线程数可供监控，通过任务数量反映负载。
+ */
+public class CountingExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder active = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * @param delegate 被包装的线程池
+     */
+    public CountingExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        delegate.execute(() -> {
+            active.increment();
+            try {
+                command.run();
+            } finally {
+                active.decrement();
+                completed.increment();
+            }
+        });
+        submitted.increment();
+    }
+
+    /**
+     * 提交的任务数量
+     */
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    /**
+     * 正在执行的任务数量
+     */
+    public long getActiveCount() {
+        return active.sum();
+    }
+
+    /**
+     * 已完成的任务数量
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    @Nonnull
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
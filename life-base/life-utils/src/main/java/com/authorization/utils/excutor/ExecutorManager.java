@@ -1,11 +1,9 @@
 package com.authorization.utils.excutor;
 
-import cn.hutool.core.util.RandomUtil;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.annotation.Nonnull;
 import java.util.Map;
 import java.util.concurrent.*;
 
@@ -20,12 +18,25 @@ public class ExecutorManager {
      * 线程池管理器
      */
     private static final ConcurrentHashMap<String, ThreadPoolExecutor> EXECUTORS = new ConcurrentHashMap<>(8);
+    /**
+     * 非 ThreadPoolExecutor 的线程池，例如虚拟线程的线程池
+     */
+    private static final ConcurrentHashMap<String, ExecutorService> EXECUTOR_SERVICES = new ConcurrentHashMap<>(8);
     /**
      * 默认线程池
      */
     private static final ThreadPoolExecutor DEFAULT_EXECUTOR;
+    /**
+     * 线程优先的线程池默认的处理方式：队列已满时最多等待1秒，超时后拒绝
+     * <p>
+     * 此前队列已满时提交任务的线程会一直阻塞等待，不会被拒绝。未指定处理方式的线程池(如 DefaultExecutor)
+     * 在队列已满时会抛出 RejectedExecutionException，调用方需要处理；不能失败的任务应使用 {@link BackpressurePolicy#CALLER_RUNS}。
+     */
+    private static final BackpressurePolicy DEFAULT_BACKPRESSURE_POLICY = BackpressurePolicy.TIMED_OFFER;
+    private static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 1000;
 
     static {
+        ExecutorMetrics.startMonitor(EXECUTORS);
         DEFAULT_EXECUTOR = buildThreadFirstExecutor("DefaultExecutor");
     }
 
@@ -66,6 +77,9 @@ public class ExecutorManager {
      * <p>
      * 线程优先的线程池，就是在核心线程满了之后，继续创建线程，直到达到最大线程数之后，再把任务添加到工作队列中。
      *
+     * <p>
+     * 队列已满时最多等待1秒，超时后拒绝，见 {@link BackpressurePolicy#TIMED_OFFER}。
+     *
      * @param corePoolSize    核心线程数
      * @param maximumPoolSize 最大线程数
      * @param keepAliveTime   空闲线程的空闲时间
@@ -80,28 +94,40 @@ public class ExecutorManager {
                                                               TimeUnit unit,
                                                               int workQueueSize,
                                                               String poolName) {
-        // 自定义队列，优先开启更多线程，而不是放入队列
-        LinkedBlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>(workQueueSize) {
-            private static final long serialVersionUID = 1L;
+        return buildThreadFirstExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueueSize, poolName,
+                DEFAULT_BACKPRESSURE_POLICY, DEFAULT_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
 
-            @Override
-            public boolean offer(@Nonnull Runnable o) {
-                return false; // 造成队列已满的假象
-            }
-        };
+    /**
+     * 构建线程优先的线程池，并指定线程数达到最大值、队列已满时的处理方式
+     *
+     * @param corePoolSize    核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param keepAliveTime   空闲线程的空闲时间
+     * @param unit            时间单位
+     * @param workQueueSize   工作队列容量大小
+     * @param poolName        线程池名称
+     * @param policy          队列已满时的处理方式
+     * @param offerTimeout    TIMED_OFFER 时最多等待的时长；ADAPTIVE 时为目标排队耗时
+     * @param offerTimeUnit   offerTimeout 的时间单位
+     * @return ThreadPoolExecutor
+     */
+    public static ThreadPoolExecutor buildThreadFirstExecutor(int corePoolSize,
+                                                              int maximumPoolSize,
+                                                              long keepAliveTime,
+                                                              TimeUnit unit,
+                                                              int workQueueSize,
+                                                              String poolName,
+                                                              BackpressurePolicy policy,
+                                                              long offerTimeout,
+                                                              TimeUnit offerTimeUnit) {
+        // 自定义队列，优先开启更多线程，而不是放入队列
+        ThreadFirstQueue queue = new ThreadFirstQueue(workQueueSize);
 
-        // 当线程达到 maximumPoolSize 时会触发拒绝策略，此时将任务 put 到队列中
-        RejectedExecutionHandler rejectedExecutionHandler = (runnable, executor) -> {
-            try {
-                // 任务拒绝时，通过 offer 放入队列
-                queue.put(runnable);
-            } catch (InterruptedException e) {
-                log.warn("{} Queue offer interrupted. ", poolName, e);
-                Thread.currentThread().interrupt();
-            }
-        };
+        // 当线程达到 maximumPoolSize 时会触发拒绝策略，此时按 policy 将任务放入队列、拒绝或由提交任务的线程执行
+        RejectedExecutionHandler rejectedExecutionHandler = new BackpressureRejectedHandler(poolName, queue, policy, offerTimeout, offerTimeUnit);
 
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        ThreadPoolExecutor executor = new MonitoredThreadPoolExecutor(
                 corePoolSize, maximumPoolSize,
                 keepAliveTime, unit,
                 queue,
@@ -110,7 +136,8 @@ public class ExecutorManager {
                         .setUncaughtExceptionHandler((Thread thread, Throwable throwable) ->
                                 log.error("{} catching the uncaught exception, ThreadName: [{}]", poolName, thread.toString(), throwable))
                         .build(),
-                rejectedExecutionHandler
+                rejectedExecutionHandler,
+                poolName
         );
 
         executor.allowCoreThreadTimeOut(true);
@@ -120,44 +147,6 @@ public class ExecutorManager {
         return executor;
     }
 
-    /**
-     * 根据一定周期输出线程池的状态
-     *
-     * @param threadPool     线程池
-     * @param threadPoolName 线程池名称
-     */
-    private static void displayThreadPoolStatus(ThreadPoolExecutor threadPool, String threadPoolName) {
-        displayThreadPoolStatus(threadPool, threadPoolName, RandomUtil.randomInt(600), TimeUnit.SECONDS);
-    }
-
-    /**
-     * 根据一定周期输出线程池的状态
-     *
-     * @param threadPool     线程池
-     * @param threadPoolName 线程池名称
-     * @param period         周期
-     * @param unit           时间单位
-     */
-    private static void displayThreadPoolStatus(ThreadPoolExecutor threadPool, String threadPoolName, long period, TimeUnit unit) {
-        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(() -> {
-            String payload = "[ExecutorManager] Executor Status:[ThreadPool Name: [{}], Pool Status: [shutdown={}, Terminated={}], Pool Thread Size: {}, Largest Pool Size: {}, Active Thread Count: {}, Task Count: {}, Tasks Completed: {}, Tasks in Queue: {}]";
-            Object[] params = new Object[]{threadPoolName,
-                    threadPool.isShutdown(), threadPool.isTerminated(), // 线程是否被终止
-                    threadPool.getPoolSize(), // 线程池线程数量
-                    threadPool.getLargestPoolSize(), // 线程最大达到的数量
-                    threadPool.getActiveCount(), // 工作线程数
-                    threadPool.getTaskCount(), // 总任务数
-                    threadPool.getCompletedTaskCount(), // 已完成的任务数
-                    threadPool.getQueue().size()};
-
-            if (threadPool.getQueue().remainingCapacity() < 64) {
-                log.warn(payload, params);
-            } else {
-                log.info(payload, params);
-            }
-        }, 0, period, unit);
-    }
-
     /**
      * 添加Hook在Jvm关闭时优雅的关闭线程池
      *
@@ -217,13 +206,15 @@ public class ExecutorManager {
 
     /**
      * 向管理器注册线程池，并监控线程池状态
+     * <p>
+     * 线程池的状态通过 {@link ExecutorMetrics} 发布为监控指标，所有线程池共用一个监控线程。
      *
      * @param threadPoolName 线程池名称
      * @param executor       ThreadPoolExecutor
      */
     public static void registerAndMonitorThreadPoolExecutor(String threadPoolName, ThreadPoolExecutor executor) {
         EXECUTORS.put(threadPoolName, executor);
-        ExecutorManager.displayThreadPoolStatus(executor, threadPoolName);
+        ExecutorMetrics.monitor(threadPoolName, executor);
         ExecutorManager.hookShutdownThreadPool(executor, threadPoolName);
     }
 
@@ -236,6 +227,92 @@ public class ExecutorManager {
         return EXECUTORS.get(threadPoolName);
     }
 
+    /**
+     * 根据名称获取线程池，包括虚拟线程的线程池
+     *
+     * @param threadPoolName 线程池名称
+     */
+    public static ExecutorService getExecutor(String threadPoolName) {
+        ExecutorService executor = EXECUTORS.get(threadPoolName);
+        return executor != null ? executor : EXECUTOR_SERVICES.get(threadPoolName);
+    }
+
+    /**
+     * 当前jdk是否支持虚拟线程，jdk21及以上版本支持
+     *
+     * @return 支持时为true
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * 根据配置的类型构建线程池，例如：ExecutorManager.buildExecutor(poolName, ExecutorType.of(executorType), maxConcurrency)
+     *
+     * @param poolName       线程池名称
+     * @param type           线程池类型
+     * @param maxConcurrency 同时执行任务的最大数量
+     * @return ExecutorService
+     */
+    public static ExecutorService buildExecutor(String poolName, ExecutorType type, int maxConcurrency) {
+        if (type == ExecutorType.VIRTUAL) {
+            return buildVirtualThreadExecutor(poolName, maxConcurrency);
+        }
+        return buildThreadFirstExecutor(Math.min(getCpuProcessors(), maxConcurrency), maxConcurrency,
+                5, TimeUnit.MINUTES, 1 << 16, poolName);
+    }
+
+    /**
+     * 构建虚拟线程的线程池，每个任务一个虚拟线程，不限制同时执行的任务数量，发布提交、执行中及已完成的任务数量
+     * <p>
+     * jdk 不支持虚拟线程时，使用 {@link #buildThreadFirstExecutor(String)} 构建的线程池
+     *
+     * @param poolName 线程池名称
+     * @return ExecutorService
+     */
+    public static ExecutorService buildVirtualThreadExecutor(String poolName) {
+        if (!VirtualThreads.isSupported()) {
+            log.info("[ExecutorManager] Virtual threads are not supported, use the thread first executor: [{}]", poolName);
+            return buildThreadFirstExecutor(poolName);
+        }
+        CountingExecutorService executor = new CountingExecutorService(VirtualThreads.newVirtualThreadPerTaskExecutor(poolName));
+        registerExecutorService(poolName, executor);
+        ExecutorMetrics.monitor(poolName, executor);
+        return executor;
+    }
+
+    /**
+     * 构建虚拟线程的线程池，通过信号量限制同时执行的任务数量，超出的任务在虚拟线程中等待，不阻塞提交任务的线程
+     * <p>
+     * jdk 不支持虚拟线程时，使用最大线程数为 maxConcurrency 的线程优先的线程池
+     *
+     * @param poolName       线程池名称
+     * @param maxConcurrency 同时执行任务的最大数量
+     * @return ExecutorService
+     */
+    public static ExecutorService buildVirtualThreadExecutor(String poolName, int maxConcurrency) {
+        if (!VirtualThreads.isSupported()) {
+            log.info("[ExecutorManager] Virtual threads are not supported, use the thread first executor: [{}]", poolName);
+            return buildThreadFirstExecutor(Math.min(getCpuProcessors(), maxConcurrency), maxConcurrency,
+                    5, TimeUnit.MINUTES, 1 << 16, poolName);
+        }
+        BoundedExecutorService executor = new BoundedExecutorService(VirtualThreads.newVirtualThreadPerTaskExecutor(poolName), maxConcurrency);
+        registerExecutorService(poolName, executor);
+        ExecutorMetrics.monitor(poolName, executor);
+        return executor;
+    }
+
+    /**
+     * 向管理器注册非 ThreadPoolExecutor 的线程池，并在jvm关闭时关闭线程池
+     *
+     * @param threadPoolName 线程池名称
+     * @param executor       ExecutorService
+     */
+    private static void registerExecutorService(String threadPoolName, ExecutorService executor) {
+        EXECUTOR_SERVICES.put(threadPoolName, executor);
+        ExecutorManager.hookShutdownThreadPool(executor, threadPoolName);
+    }
+
     /**
      * 获取所有已注册的线程池
      *
@@ -0,0 +1,182 @@
+package com.authorization.utils.excutor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池的监控指标
+ * <p>
+ * 每个线程池以名称作为 name 标签，发布线程数、活跃线程数、队列长度、拒绝次数等指标，
+ * {@link MonitoredThreadPoolExecutor} 另外发布任务的排队耗时及执行耗时。
+ * <p>
+ * 指标注册在 {@link Metrics#globalRegistry} 中，spring boot 的 MeterRegistry 默认会加入其中，线程池可在 spring 容器启动前创建。
+ * 所有线程池共用一个监控线程，队列即将占满时输出 warn 日志。
+ */
+@Slf4j
+public final class ExecutorMetrics {
+
+    /**
+     * 检查队列剩余容量的周期，单位：秒
+     */
+    private static final long CHECK_PERIOD_SECONDS = 60;
+    /**
+     * 队列剩余容量小于此值时输出 warn 日志
+     */
+    private static final int QUEUE_WARN_REMAINING = 64;
+
+    private static final ScheduledExecutorService MONITOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ExecutorManager-Monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ExecutorMetrics() {
+    }
+
+    /**
+     * 发布线程池的监控指标，并统计拒绝次数
+     *
+     * @param threadPoolName 线程池名称
+     * @param executor       线程池
+     */
+    static void monitor(String threadPoolName, ThreadPoolExecutor executor) {
+        MeterRegistry registry = Metrics.globalRegistry;
+        new ExecutorServiceMetrics(executor, threadPoolName, Tags.empty()).bindTo(registry);
+        RejectedExecutionHandler handler = executor.getRejectedExecutionHandler();
+        if (handler instanceof BackpressureRejectedHandler backpressure) {
+            // 线程优先的线程池达到最大线程数后的任务均经过拒绝策略放入队列，只统计实际拒绝的数量
+            FunctionCounter.builder("executor.rejected", backpressure, BackpressureRejectedHandler::getRejectedCount)
+                    .description("线程池拒绝的任务数量")
+                    .tag("name", threadPoolName)
+                    .register(registry);
+            FunctionCounter.builder("executor.caller.runs", backpressure, BackpressureRejectedHandler::getCallerRunsCount)
+                    .description("由提交任务的线程执行的任务数量")
+                    .tag("name", threadPoolName)
+                    .register(registry);
+            Gauge.builder("executor.queue.limit", backpressure, BackpressureRejectedHandler::getQueueLimit)
+                    .description("当前允许排队的任务数量")
+                    .tag("name", threadPoolName)
+                    .register(registry);
+            return;
+        }
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("线程池拒绝的任务数量")
+                .tag("name", threadPoolName)
+                .register(registry);
+        executor.setRejectedExecutionHandler((runnable, pool) -> {
+            rejected.increment();
+            handler.rejectedExecution(runnable, pool);
+        });
+    }
+
+    /**
+     * 发布限制并发数的线程池的监控指标
+     *
+     * @param threadPoolName 线程池名称
+     * @param executor       线程池
+     */
+    static void monitor(String threadPoolName, BoundedExecutorService executor) {
+        MeterRegistry registry = Metrics.globalRegistry;
+        Gauge.builder("executor.active", executor, BoundedExecutorService::getActiveCount)
+                .description("正在执行的任务数量")
+                .tag("name", threadPoolName)
+                .register(registry);
+        Gauge.builder("executor.queued", executor, BoundedExecutorService::getWaitingCount)
+                .description("等待许可的任务数量")
+                .tag("name", threadPoolName)
+                .register(registry);
+        Gauge.builder("executor.pool.max", executor, BoundedExecutorService::getMaxConcurrency)
+                .description("同时执行任务的最大数量")
+                .tag("name", threadPoolName)
+                .register(registry);
+    }
+
+    /**
+     * 发布不限制并发数的线程池的监控指标
+     *
+     * @param threadPoolName 线程池名称
+     * @param executor       线程池
+     */
+    static void monitor(String threadPoolName, CountingExecutorService executor) {
+        MeterRegistry registry = Metrics.globalRegistry;
+        Gauge.builder("executor.active", executor, CountingExecutorService::getActiveCount)
+                .description("正在执行的任务数量")
+                .tag("name", threadPoolName)
+                .register(registry);
+        FunctionCounter.builder("executor.submitted", executor, CountingExecutorService::getSubmittedCount)
+                .description("提交的任务数量")
+                .tag("name", threadPoolName)
+                .register(registry);
+        FunctionCounter.builder("executor.completed", executor, CountingExecutorService::getCompletedCount)
+                .description("已完成的任务数量")
+                .tag("name", threadPoolName)
+                .register(registry);
+    }
+
+    /**
+     * 任务在队列中等待的耗时
+     *
+     * @param threadPoolName 线程池名称
+     * @return Timer
+     */
+    static Timer queueWaitTimer(String threadPoolName) {
+        return Timer.builder("executor.queue.wait")
+                .description("任务从提交到开始执行的耗时")
+                .tag("name", threadPoolName)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * 任务的执行耗时
+     *
+     * @param threadPoolName 线程池名称
+     * @return Timer
+     */
+    static Timer executionTimer(String threadPoolName) {
+        return Timer.builder("executor.execution")
+                .description("任务开始执行到执行结束的耗时")
+                .tag("name", threadPoolName)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * 启动共用的监控线程，定期检查已注册的线程池
+     *
+     * @param executors 已注册的线程池
+     */
+    static void startMonitor(Map<String, ThreadPoolExecutor> executors) {
+        MONITOR.scheduleAtFixedRate(() -> executors.forEach(ExecutorMetrics::checkQueue),
+                CHECK_PERIOD_SECONDS, CHECK_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void checkQueue(String threadPoolName, ThreadPoolExecutor threadPool) {
+        if (threadPool.getQueue().remainingCapacity() >= QUEUE_WARN_REMAINING) {
+            return;
+        }
+        log.warn("[ExecutorManager] Executor Status:[ThreadPool Name: [{}], Pool Status: [shutdown={}, Terminated={}], Pool Thread Size: {}, Largest Pool Size: {}, Active Thread Count: {}, Task Count: {}, Tasks Completed: {}, Tasks in Queue: {}]",
+                threadPoolName,
+                threadPool.isShutdown(), threadPool.isTerminated(),
+                threadPool.getPoolSize(),
+                threadPool.getLargestPoolSize(),
+                threadPool.getActiveCount(),
+                threadPool.getTaskCount(),
+                threadPool.getCompletedTaskCount(),
+                threadPool.getQueue().size());
+    }
+}
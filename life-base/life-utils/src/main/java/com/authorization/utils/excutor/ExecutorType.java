@@ -0,0 +1,34 @@
+package com.authorization.utils.excutor;
+
+/**
+ * 线程池的类型
+ */
+public enum ExecutorType {
+
+    /**
+     * 平台线程，线程优先的线程池
+     */
+    PLATFORM,
+    /**
+     * 虚拟线程，每个任务一个虚拟线程，适用于 redis、mysql 等io密集的任务；jdk 不支持虚拟线程时使用平台线程
+     */
+    VIRTUAL;
+
+    /**
+     * 根据配置值获取线程池类型，不区分大小写，为空或无法识别时为 PLATFORM
+     *
+     * @param value 配置值
+     * @return ExecutorType
+     */
+    public static ExecutorType of(String value) {
+        if (value == null) {
+            return PLATFORM;
+        }
+        for (ExecutorType type : values()) {
+            if (type.name().equalsIgnoreCase(value.trim())) {
+                return type;
+            }
+        }
+        return PLATFORM;
+    }
+}
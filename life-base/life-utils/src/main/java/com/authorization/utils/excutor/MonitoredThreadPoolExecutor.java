@@ -0,0 +1,76 @@
+package com.authorization.utils.excutor;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计任务排队耗时及执行耗时的线程池
+ * <p>
+ * 提交的任务包装为 {@link TimedRunnable}，记录提交时间，开始执行时统计排队耗时，执行结束后统计执行耗时。
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final Timer queueWaitTimer;
+    private final Timer executionTimer;
+    /**
+     * 线程优先的线程池的拒绝策略，需要根据排队耗时调整时不为空
+     */
+    private final BackpressureRejectedHandler backpressureHandler;
+
+    public MonitoredThreadPoolExecutor(int corePoolSize,
+                                       int maximumPoolSize,
+                                       long keepAliveTime,
+                                       TimeUnit unit,
+                                       BlockingQueue<Runnable> workQueue,
+                                       ThreadFactory threadFactory,
+                                       RejectedExecutionHandler handler,
+                                       String poolName) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        this.queueWaitTimer = ExecutorMetrics.queueWaitTimer(poolName);
+        this.executionTimer = ExecutorMetrics.executionTimer(poolName);
+        this.backpressureHandler = handler instanceof BackpressureRejectedHandler backpressure ? backpressure : null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command instanceof TimedRunnable ? command : new TimedRunnable(command));
+    }
+
+    /**
+     * 记录提交时间的任务
+     */
+    private final class TimedRunnable implements Runnable {
+
+        private final Runnable delegate;
+        private final long submitTime = System.nanoTime();
+
+        private TimedRunnable(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            long queueWait = startTime - submitTime;
+            queueWaitTimer.record(queueWait, TimeUnit.NANOSECONDS);
+            if (backpressureHandler != null) {
+                backpressureHandler.onQueueWait(queueWait);
+            }
+            try {
+                delegate.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.authorization.utils.excutor;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程优先的线程池使用的队列，线程池提交任务时总是返回队列已满，使线程池优先创建线程，
+ * 线程数达到最大值后，由 {@link BackpressureRejectedHandler} 通过 forceOffer 放入队列
+ */
+class ThreadFirstQueue extends LinkedBlockingQueue<Runnable> {
+
+    private static final long serialVersionUID = 1L;
+
+    ThreadFirstQueue(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(@Nonnull Runnable o) {
+        return false; // 造成队列已满的假象
+    }
+
+    /**
+     * 放入队列，队列已满时返回false
+     */
+    boolean forceOffer(Runnable runnable) {
+        return super.offer(runnable);
+    }
+
+    /**
+     * 放入队列，队列已满时最多等待 timeout
+     */
+    boolean forceOffer(Runnable runnable, long timeout, TimeUnit unit) throws InterruptedException {
+        return super.offer(runnable, timeout, unit);
+    }
+}
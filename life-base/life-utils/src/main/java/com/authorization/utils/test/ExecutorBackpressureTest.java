@@ -0,0 +1,89 @@
+package com.authorization.utils.test;
+
+import com.authorization.utils.excutor.BackpressurePolicy;
+import com.authorization.utils.excutor.ExecutorManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 线程优先的线程池在10倍过载下各个处理方式的表现，输出接受、拒绝的任务数量，任务从提交到完成的耗时分位数，以及提交任务的最大阻塞耗时。
+ * <p>
+ * 4个线程，每个任务耗时5ms，处理能力约为800个/秒，以8000个/秒的速率提交3秒。
+ */
+@Slf4j
+public class ExecutorBackpressureTest {
+
+    private static final int THREADS = 4;
+    private static final int QUEUE_SIZE = 2_000;
+    private static final long TASK_MILLIS = 5;
+    private static final int SUBMIT_PER_SECOND = 8_000;
+    private static final int SECONDS = 3;
+    /**
+     * TIMED_OFFER 最多等待的时长；ADAPTIVE 的目标排队耗时
+     */
+    private static final long OFFER_TIMEOUT_MILLIS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (BackpressurePolicy policy : BackpressurePolicy.values()) {
+            run(policy);
+        }
+    }
+
+    private static void run(BackpressurePolicy policy) throws InterruptedException {
+        ThreadPoolExecutor executor = ExecutorManager.buildThreadFirstExecutor(THREADS, THREADS, 1, TimeUnit.MINUTES,
+                QUEUE_SIZE, "Backpressure-" + policy, policy, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        int total = SUBMIT_PER_SECOND * SECONDS;
+        long interval = TimeUnit.SECONDS.toNanos(1) / SUBMIT_PER_SECOND;
+        long[] latencies = new long[total];
+        AtomicInteger completed = new AtomicInteger();
+        int rejected = 0;
+        long maxStall = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            // 按固定速率提交，提交被阻塞时不补发
+            long deadline = start + i * interval;
+            long now = System.nanoTime();
+            if (deadline > now) {
+                LockSupport.parkNanos(deadline - now);
+            }
+            long submitTime = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(TASK_MILLIS));
+                    latencies[completed.getAndIncrement()] = System.nanoTime() - submitTime;
+                });
+            } catch (RejectedExecutionException e) {
+                rejected++;
+            }
+            maxStall = Math.max(maxStall, System.nanoTime() - submitTime);
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        long cost = System.nanoTime() - start;
+
+        long[] done = Arrays.copyOf(latencies, completed.get());
+        Arrays.sort(done);
+        log.info("[{}] submitted: {}, completed: {}, rejected: {}, cost: {} ms, latency p50: {} ms, p99: {} ms, max: {} ms, max submit stall: {} ms",
+                policy, total, done.length, rejected, TimeUnit.NANOSECONDS.toMillis(cost),
+                millis(percentile(done, 0.50)), millis(percentile(done, 0.99)), millis(percentile(done, 1.0)),
+                millis(maxStall));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)];
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,50 @@
+package com.authorization.gateway.cache;
+
+import com.authorization.gateway.entity.UserDetail;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * 本地缓存中的用户信息，同时保留redis中的原始json，用于生成下游服务使用的jwtToken。
+ * <p>
+ * 同一个实例中的json不会变化，因此签名后的jwtToken只需计算一次；redis中的用户信息重新加载后会创建新的实例，重新签名。
+ */
+@Getter
+public class CachedUserDetail {
+
+    /**
+     * redis中存储的用户信息json
+     */
+    private final String json;
+    /**
+     * 解析后的用户信息
+     */
+    private final UserDetail userDetail;
+    /**
+     * 以json为载荷签名后的jwtToken，首次使用时计算
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile String jwtToken;
+
+    public CachedUserDetail(String json, UserDetail userDetail) {
+        this.json = json;
+        this.userDetail = userDetail;
+    }
+
+    /**
+     * 获取签名后的jwtToken，并发首次调用时可能重复签名，但结果相同，无需加锁
+     *
+     * @param signer 对json进行签名并序列化
+     * @return jwtToken
+     */
+    public String getJwtToken(UnaryOperator<String> signer) {
+        String token = this.jwtToken;
+        if (token == null) {
+            token = signer.apply(json);
+            this.jwtToken = token;
+        }
+        return token;
+    }
+}
@@ -0,0 +1,112 @@
+package com.authorization.gateway.cache;
+
+import cn.hutool.core.util.StrUtil;
+import com.authorization.gateway.entity.UserDetail;
+import com.authorization.redis.start.service.ReactiveStringRedisService;
+import com.authorization.utils.contsant.SecurityConstants;
+import com.authorization.utils.json.JsonHelper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关本地的用户信息一级缓存，避免每次请求都访问redis并反序列化用户信息。
+ * <p>
+ * 未命中时通过{@link ReactiveStringRedisService}非阻塞的加载，同一token的并发请求共享同一次加载，不会阻塞事件循环线程。
+ * <p>
+ * 以token为key，超过最大容量时按访问频率淘汰，并以存活时长兜底；用户退出登录或授权信息被删除时，
+ * 认证服务通过{@link SecurityConstants#USER_DETAIL_INVALID_TOPIC}频道通知各网关节点失效对应的缓存。
+ * <p>
+ * 命中、未命中、淘汰次数通过 micrometer 以 cache=gateway.user-detail 暴露。
+ */
+@Slf4j
+@Component
+public class UserDetailCache implements InitializingBean {
+
+    public static final String CACHE_NAME = "gateway.user-detail";
+
+    /**
+     * 本地缓存的最大数量
+     */
+    private final long maxSize;
+    /**
+     * 本地缓存的存活时长，单位：秒
+     */
+    private final long expireSeconds;
+    private final ReactiveStringRedisService reactiveStringRedisService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private AsyncCache<String, CachedUserDetail> cache;
+
+    public UserDetailCache(ReactiveStringRedisService reactiveStringRedisService,
+                           ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${gateway.user-detail-cache.max-size:10000}") long maxSize,
+                           @Value("${gateway.user-detail-cache.expire-seconds:60}") long expireSeconds) {
+        this.reactiveStringRedisService = reactiveStringRedisService;
+        this.meterRegistry = meterRegistry;
+        this.maxSize = maxSize;
+        this.expireSeconds = expireSeconds;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .buildAsync();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache.synchronous(), CACHE_NAME));
+        log.info("Init gateway user detail cache, maxSize: {}, expireSeconds: {}", maxSize, expireSeconds);
+    }
+
+    /**
+     * 获取token对应的用户信息，本地缓存未命中时从redis中加载
+     *
+     * @param token token
+     * @return 用户信息，未登录或登录已过期时为 Mono.empty()
+     */
+    public Mono<CachedUserDetail> get(String token) {
+        if (StrUtil.isBlank(token)) {
+            return Mono.empty();
+        }
+        // 加载结果为null时，caffeine不会缓存此token
+        return Mono.defer(() -> Mono.fromFuture(cache.get(token, (key, executor) -> load(key).toFuture())));
+    }
+
+    /**
+     * 失效token对应的本地缓存
+     *
+     * @param token token
+     */
+    public void invalidate(String token) {
+        if (StrUtil.isNotBlank(token)) {
+            cache.synchronous().invalidate(token);
+        }
+    }
+
+    /**
+     * 缓存的命中、未命中、淘汰等统计信息
+     *
+     * @return CacheStats
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private Mono<CachedUserDetail> load(String token) {
+        // 不缓存空值，由redis中的数据决定是否已登录
+        return reactiveStringRedisService.strGet(SecurityConstants.getUserTokenKey(token))
+                .filter(StrUtil::isNotBlank)
+                .map(userDetailStr -> new CachedUserDetail(userDetailStr, JsonHelper.readValue(userDetailStr, UserDetail.class)));
+    }
+}
@@ -1,10 +1,8 @@
 package com.authorization.gateway.filter;
 
 
-import com.authorization.redis.start.service.StringRedisService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -19,9 +17,6 @@ public class AuthGatewayFilterFactory extends AbstractGatewayFilterFactory<Objec
 
     public static final String AUTH = "Auth";
 
-    @Autowired
-    private StringRedisService stringRedisService;
-
     @Override
     public void afterPropertiesSet() {
     }
@@ -2,12 +2,12 @@ package com.authorization.gateway.filter;
 
 
 import cn.hutool.core.util.StrUtil;
+import com.authorization.gateway.cache.CachedUserDetail;
+import com.authorization.gateway.cache.UserDetailCache;
 import com.authorization.gateway.entity.RequestContext;
 import com.authorization.gateway.entity.UserDetail;
 import com.authorization.gateway.execption.UnauthorizedException;
-import com.authorization.redis.start.service.StringRedisService;
 import com.authorization.utils.contsant.SecurityConstants;
-import com.authorization.utils.json.JsonHelper;
 import com.authorization.utils.jwt.Jwts;
 import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSObject;
@@ -23,6 +23,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 import java.util.Map;
 import java.util.Optional;
@@ -40,40 +41,58 @@ public class JwtTokenGatewayFilterFactory extends AbstractGatewayFilterFactory<O
     private String secret;
     private JWSSigner signer;
     private final JWSHeader jwsHeader = Jwts.header();
+    /**
+     * 未登录时的jwtToken，载荷为空字符串，启动时签名一次
+     */
+    private String anonymousJwtToken;
 
     @Autowired
-    private StringRedisService stringRedisService;
+    private UserDetailCache userDetailCache;
 
     @Override
     public void afterPropertiesSet() {
         signer = Jwts.signer(secret);
+        anonymousJwtToken = sign(StrUtil.EMPTY);
     }
 
     @Override
     public GatewayFilter apply(Object config) {
         return (exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
-            String token = getToken(request);
-            // 获取当前用户的信息
-            String userDetailStr = StrUtil.isBlank(token) ? null : stringRedisService.strGet(SecurityConstants.getUserTokenKey(token));
-            // 若jwt不存在，则封入一个空字符串，到权限拦截器处理。因为有些api是不需要登录的，故在此不处理。
-            UserDetail userDetail = StrUtil.isNotBlank(userDetailStr) ? JsonHelper.readValue(userDetailStr, UserDetail.class) : null;
-            userDetailStr = Optional.ofNullable(userDetailStr).orElse(StrUtil.EMPTY);
-            // 创建JWS对象
-            JWSObject jwsObject = new JWSObject(jwsHeader, new Payload(userDetailStr));
-            // 签名并序列化转换为真正存储用户信息的jwtToken
-            String jwtToken = Jwts.signAndSerialize(jwsObject, signer);
-            ServerWebExchange jwtExchange = exchange.mutate()
-                    .request(request.mutate().header(Jwts.HEADER_JWT, jwtToken).build())
-                    .build();
-            return chain.filter(jwtExchange)
-                    .contextWrite(ctx -> ctx.put(RequestContext.CTX_KEY,
-                            ctx.<RequestContext>getOrEmpty(RequestContext.CTX_KEY)
-                                    .orElse(new RequestContext())
-                                    .setUserDetail(userDetail)));
+            // 获取当前用户的信息，优先从本地缓存中获取，未命中时非阻塞的从redis中加载
+            return Mono.defer(() -> Mono.justOrEmpty(getToken(request)))
+                    .flatMap(userDetailCache::get)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(cachedUserDetail -> {
+                        // 若jwt不存在，则封入一个空字符串，到权限拦截器处理。因为有些api是不需要登录的，故在此不处理。
+                        UserDetail userDetail = cachedUserDetail.map(CachedUserDetail::getUserDetail).orElse(null);
+                        // 签名后的jwtToken随本地缓存的用户信息一起复用，避免每次请求重新签名
+                        String jwtToken = cachedUserDetail.map(cached -> cached.getJwtToken(this::sign)).orElse(anonymousJwtToken);
+                        ServerWebExchange jwtExchange = exchange.mutate()
+                                .request(request.mutate().header(Jwts.HEADER_JWT, jwtToken).build())
+                                .build();
+                        return chain.filter(jwtExchange)
+                                .contextWrite(ctx -> ctx.put(RequestContext.CTX_KEY,
+                                        ctx.<RequestContext>getOrEmpty(RequestContext.CTX_KEY)
+                                                .orElse(new RequestContext())
+                                                .setUserDetail(userDetail)));
+                    });
         };
     }
 
+    /**
+     * 签名并序列化转换为真正存储用户信息的jwtToken
+     *
+     * @param userDetailStr 用户信息json
+     * @return jwtToken
+     */
+    private String sign(String userDetailStr) {
+        // 创建JWS对象
+        JWSObject jwsObject = new JWSObject(jwsHeader, new Payload(userDetailStr));
+        return Jwts.signAndSerialize(jwsObject, signer);
+    }
+
     /**
      * 获取jwtToken，并解析获取其中的token信息
      *
@@ -0,0 +1,149 @@
+package com.authorization.gateway.filter;
+
+
+import cn.hutool.core.util.StrUtil;
+import com.authorization.gateway.entity.RequestContext;
+import com.authorization.gateway.entity.Result;
+import com.authorization.gateway.entity.UserDetail;
+import com.authorization.gateway.limiter.RateLimitConfig;
+import com.authorization.gateway.limiter.RedisRateLimiter;
+import com.authorization.utils.json.JsonHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流过滤器，超过限额的请求返回429。
+ * <p>
+ * 限额由服务实例的元数据配置，元数据中存在 rate-limit.rate 时路由才会添加此过滤器：
+ * <pre>
+ * rate-limit.algorithm=token-bucket|sliding-window
+ * rate-limit.key-type=user|ip|service
+ * rate-limit.rate=100
+ * rate-limit.capacity=200
+ * rate-limit.window-millis=1000
+ * rate-limit.local-batch=10
+ * rate-limit.local-lease-millis=200
+ * </pre>
+ * 按用户限流时需要在 {@link JwtTokenGatewayFilterFactory} 之后执行；客户端IP取自请求的远程地址，
+ * 网关前有代理时需要开启 server.forward-headers-strategy=framework，由 X-Forwarded-For 还原。
+ */
+@Slf4j
+@Component
+public class RateLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<RateLimitConfig> {
+
+    public static final String RATE_LIMIT = "RateLimit";
+    public static final String METADATA_PREFIX = "rate-limit.";
+
+    private static final String TOO_MANY_REQUESTS = "Too many requests, Please retry on later";
+    private static final String UNKNOWN = "unknown";
+
+    @Autowired
+    private RedisRateLimiter redisRateLimiter;
+
+    public RateLimitGatewayFilterFactory() {
+        super(RateLimitConfig.class);
+    }
+
+    /**
+     * 根据服务实例的元数据生成限流过滤器的定义
+     *
+     * @param metadata 服务实例的元数据
+     * @return 未配置限流时为null
+     */
+    public static FilterDefinition definition(Map<String, String> metadata) {
+        if (StrUtil.isBlank(metadata.get(METADATA_PREFIX + "rate"))) {
+            return null;
+        }
+        FilterDefinition definition = new FilterDefinition();
+        definition.setName(RATE_LIMIT);
+        Map<String, String> args = new HashMap<>();
+        metadata.forEach((key, value) -> {
+            if (key.startsWith(METADATA_PREFIX) && StrUtil.isNotBlank(value)) {
+                args.put(StrUtil.toCamelCase(key.substring(METADATA_PREFIX.length()), '-'), value.trim());
+            }
+        });
+        definition.setArgs(args);
+        return definition;
+    }
+
+    @Override
+    public GatewayFilter apply(RateLimitConfig config) {
+        Assert.isTrue(config.getRate() > 0, "rate-limit.rate 必须大于0");
+        Assert.isTrue(config.getWindowMillis() > 0, "rate-limit.window-millis 必须大于0");
+        return (exchange, chain) -> Mono.deferContextual(ctx -> {
+            RequestContext requestContext = ctx.<RequestContext>getOrEmpty(RequestContext.CTX_KEY).orElse(null);
+            String key = routeId(exchange) + ":" + config.getKeyType().name().toLowerCase() + ":"
+                    + resolveKey(config.getKeyType(), exchange, requestContext);
+            return redisRateLimiter.acquire(key, config);
+        }).flatMap(permit -> {
+            if (permit.allowed()) {
+                return chain.filter(exchange);
+            }
+            log.debug("请求被限流：{}，{}", exchange.getRequest().getPath(), config.getKeyType());
+            return tooManyRequests(exchange, permit.retryAfterMillis());
+        });
+    }
+
+    @Override
+    public String name() {
+        return RATE_LIMIT;
+    }
+
+    private String resolveKey(RateLimitConfig.KeyType keyType, ServerWebExchange exchange, RequestContext requestContext) {
+        return switch (keyType) {
+            case USER -> Optional.ofNullable(requestContext)
+                    .map(RequestContext::getUserDetail)
+                    .map(UserDetail::getUserId)
+                    .map(String::valueOf)
+                    // 未登录的请求按IP限流
+                    .orElseGet(() -> "ip-" + clientIp(exchange));
+            case SERVICE -> Optional.ofNullable(requestContext)
+                    .map(RequestContext::getServiceName)
+                    .orElse(UNKNOWN);
+            case IP -> clientIp(exchange);
+        };
+    }
+
+    private String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? UNKNOWN : route.getId();
+    }
+
+    private String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return UNKNOWN;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, long retryAfterMillis) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999))));
+        byte[] body = JsonHelper.writeValueAsString(new Result(Result.ERROR, TOO_MANY_REQUESTS)).getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
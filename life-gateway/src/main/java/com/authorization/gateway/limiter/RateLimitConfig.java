@@ -0,0 +1,76 @@
+package com.authorization.gateway.limiter;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * 路由的限流配置，由服务实例的元数据 rate-limit.* 生成，见 {@link com.authorization.gateway.filter.RateLimitGatewayFilterFactory}
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class RateLimitConfig {
+
+    /**
+     * 限流算法
+     */
+    private Algorithm algorithm = Algorithm.TOKEN_BUCKET;
+    /**
+     * 限流的维度
+     */
+    private KeyType keyType = KeyType.IP;
+    /**
+     * 令牌桶：每秒生成的令牌数；滑动窗口：每个窗口内允许的请求数
+     */
+    private long rate = 100;
+    /**
+     * 令牌桶的容量，即允许的突发请求数，小于等于0时与 rate 相同
+     */
+    private long capacity;
+    /**
+     * 滑动窗口的时长，单位：毫秒
+     */
+    private long windowMillis = 1000;
+    /**
+     * 每次从redis中预取的许可数，预取的许可在当前节点本地消耗，不再访问redis；1 表示不预取
+     */
+    private int localBatch = 1;
+    /**
+     * 本地预取的许可的有效时长，超过后未使用的许可作废，单位：毫秒
+     */
+    private long localLeaseMillis = 200;
+
+    /**
+     * 令牌桶的实际容量
+     */
+    public long bucketCapacity() {
+        return capacity > 0 ? capacity : rate;
+    }
+
+    public enum Algorithm {
+        /**
+         * 令牌桶，按固定速率生成令牌，允许不超过容量的突发请求
+         */
+        TOKEN_BUCKET,
+        /**
+         * 滑动窗口，以当前窗口与上一个窗口按时间加权的请求数估算最近一个窗口内的请求数
+         */
+        SLIDING_WINDOW
+    }
+
+    public enum KeyType {
+        /**
+         * 按登录用户限流，未登录的请求按客户端IP限流
+         */
+        USER,
+        /**
+         * 按客户端IP限流
+         */
+        IP,
+        /**
+         * 按目标服务限流，所有请求共享同一个限额
+         */
+        SERVICE
+    }
+}
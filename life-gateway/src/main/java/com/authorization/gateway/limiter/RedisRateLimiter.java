@@ -0,0 +1,174 @@
+package com.authorization.gateway.limiter;
+
+import com.authorization.redis.start.service.ReactiveStringRedisService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于redis的分布式限流，每次请求只执行一次lua脚本，限流状态的读取、计算及写入在脚本中原子完成。
+ * <p>
+ * 脚本使用redis的时间计算令牌的生成及窗口的位置，不受网关节点之间时钟偏差的影响。
+ * 脚本返回获取到的许可数，大于0时放行；小于0时被限流，绝对值为建议的重试等待毫秒数。
+ * <p>
+ * 配置了本地预取时，每次从redis中获取多个许可，在有效时长内由当前节点本地消耗，突发请求不需要访问redis；
+ * 剩余许可不足时脚本返回实际可用的数量，不会因为预取而拒绝本可以放行的请求。
+ * redis不可用时放行请求，限流不影响网关的可用性。
+ */
+@Slf4j
+@Component
+public class RedisRateLimiter {
+
+    public static final String KEY_PREFIX = "gateway:rate-limit:";
+
+    /**
+     * KEYS：令牌桶；ARGV：每秒生成的令牌数、容量、请求的许可数
+     */
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+            "redis.replicate_commands() " +
+                    "local rate = tonumber(ARGV[1]) " +
+                    "local capacity = tonumber(ARGV[2]) " +
+                    "local requested = tonumber(ARGV[3]) " +
+                    "local time = redis.call('time') " +
+                    "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+                    "local bucket = redis.call('hmget', KEYS[1], 'tokens', 'ts') " +
+                    "local tokens = tonumber(bucket[1]) or capacity " +
+                    "local ts = tonumber(bucket[2]) or now " +
+                    "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000) " +
+                    "local granted = math.min(requested, math.floor(tokens)) " +
+                    "local result " +
+                    "if granted >= 1 then " +
+                    "tokens = tokens - granted " +
+                    "result = granted " +
+                    "else " +
+                    "result = -math.ceil((1 - tokens) * 1000 / rate) " +
+                    "end " +
+                    "redis.call('hset', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) " +
+                    "redis.call('pexpire', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000) " +
+                    "return result", Long.class);
+    /**
+     * KEYS：窗口计数；ARGV：每个窗口允许的请求数、窗口毫秒数、请求的许可数。
+     * 以窗口序号为field记录每个窗口的请求数，按当前窗口已经过的比例折算上一个窗口的请求数
+     */
+    private static final RedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(
+            "redis.replicate_commands() " +
+                    "local limit = tonumber(ARGV[1]) " +
+                    "local window = tonumber(ARGV[2]) " +
+                    "local requested = tonumber(ARGV[3]) " +
+                    "local time = redis.call('time') " +
+                    "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+                    "local current = math.floor(now / window) " +
+                    "local elapsed = now - current * window " +
+                    "local counts = redis.call('hmget', KEYS[1], tostring(current), tostring(current - 1)) " +
+                    "local estimated = (tonumber(counts[2]) or 0) * (window - elapsed) / window + (tonumber(counts[1]) or 0) " +
+                    "local granted = math.min(requested, math.floor(limit - estimated)) " +
+                    "if granted < 1 then " +
+                    "return -math.max(1, math.ceil(window - elapsed)) " +
+                    "end " +
+                    "redis.call('hincrby', KEYS[1], tostring(current), granted) " +
+                    "redis.call('hdel', KEYS[1], tostring(current - 2)) " +
+                    "redis.call('pexpire', KEYS[1], window * 2) " +
+                    "return granted", Long.class);
+
+    private static final Permit ALLOWED = new Permit(true, 0);
+
+    private final ReactiveStringRedisService reactiveStringRedisService;
+    /**
+     * 本地预取的许可，key与redis中的key相同
+     */
+    private final Cache<String, LocalPermits> localPermits;
+
+    public RedisRateLimiter(ReactiveStringRedisService reactiveStringRedisService,
+                            @Value("${gateway.rate-limit.local-max-size:100000}") long localMaxSize) {
+        this.reactiveStringRedisService = reactiveStringRedisService;
+        this.localPermits = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(1, TimeUnit.MINUTES)
+                .build();
+    }
+
+    /**
+     * 获取一个许可
+     *
+     * @param key    限流的key，如：路由:维度:用户ID
+     * @param config 限流配置
+     * @return 是否放行及被限流时建议的重试等待毫秒数
+     */
+    public Mono<Permit> acquire(String key, RateLimitConfig config) {
+        String redisKey = KEY_PREFIX + config.getAlgorithm().name().toLowerCase() + ":" + key;
+        int batch = Math.max(1, config.getLocalBatch());
+        if (batch > 1) {
+            LocalPermits permits = localPermits.getIfPresent(redisKey);
+            if (permits != null && permits.tryAcquire()) {
+                return Mono.just(ALLOWED);
+            }
+        }
+        List<String> args = config.getAlgorithm() == RateLimitConfig.Algorithm.SLIDING_WINDOW
+                ? List.of(String.valueOf(config.getRate()), String.valueOf(config.getWindowMillis()), String.valueOf(batch))
+                : List.of(String.valueOf(config.getRate()), String.valueOf(config.bucketCapacity()), String.valueOf(batch));
+        RedisScript<Long> script = config.getAlgorithm() == RateLimitConfig.Algorithm.SLIDING_WINDOW
+                ? SLIDING_WINDOW_SCRIPT
+                : TOKEN_BUCKET_SCRIPT;
+        return reactiveStringRedisService.executeScript(script, List.of(redisKey), args)
+                .map(granted -> {
+                    if (granted <= 0) {
+                        return new Permit(false, -granted);
+                    }
+                    if (granted > 1) {
+                        // 当前请求使用一个，其余的在本地消耗
+                        localPermits.put(redisKey, new LocalPermits(granted - 1,
+                                System.currentTimeMillis() + config.getLocalLeaseMillis()));
+                    }
+                    return ALLOWED;
+                })
+                .defaultIfEmpty(ALLOWED)
+                .onErrorResume(e -> {
+                    log.warn("限流脚本执行失败，放行请求：{}", redisKey, e);
+                    return Mono.just(ALLOWED);
+                });
+    }
+
+    /**
+     * @param allowed          是否放行
+     * @param retryAfterMillis 被限流时建议的重试等待毫秒数
+     */
+    public record Permit(boolean allowed, long retryAfterMillis) {
+    }
+
+    /**
+     * 本地预取的许可，过期后作废
+     */
+    private static final class LocalPermits {
+
+        private final AtomicLong remaining;
+        private final long expireAt;
+
+        LocalPermits(long remaining, long expireAt) {
+            this.remaining = new AtomicLong(remaining);
+            this.expireAt = expireAt;
+        }
+
+        boolean tryAcquire() {
+            if (System.currentTimeMillis() > expireAt) {
+                return false;
+            }
+            long current;
+            do {
+                current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
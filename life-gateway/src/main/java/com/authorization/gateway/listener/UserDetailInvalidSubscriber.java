@@ -0,0 +1,31 @@
+package com.authorization.gateway.listener;
+
+import com.authorization.gateway.cache.UserDetailCache;
+import com.authorization.redis.start.listener.RedisSubscription;
+import com.authorization.utils.contsant.SecurityConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订阅用户信息失效频道，清理网关本地缓存的用户信息
+ */
+@Slf4j
+@Component
+public class UserDetailInvalidSubscriber implements RedisSubscription {
+
+    @Autowired
+    private UserDetailCache userDetailCache;
+
+    @Override
+    public void subscribe(String topic, String token) {
+        log.debug("用户信息失效, 清理本地缓存, token: [{}]", token);
+        userDetailCache.invalidate(token);
+    }
+
+    @Override
+    public String topicName() {
+        return SecurityConstants.USER_DETAIL_INVALID_TOPIC;
+    }
+
+}
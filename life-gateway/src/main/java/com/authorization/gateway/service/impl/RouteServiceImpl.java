@@ -4,6 +4,7 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.json.JSONUtil;
 import com.authorization.gateway.filter.AuthGatewayFilterFactory;
 import com.authorization.gateway.filter.JwtTokenGatewayFilterFactory;
+import com.authorization.gateway.filter.RateLimitGatewayFilterFactory;
 import com.authorization.gateway.filter.UrlResolveGatewayFilterFactory;
 import com.authorization.gateway.service.RouteService;
 import com.authorization.utils.contsant.ServerOnlineConstants;
@@ -29,6 +30,7 @@ import reactor.core.publisher.Mono;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -85,7 +87,7 @@ public class RouteServiceImpl implements RouteDefinitionRepository, RouteService
         routeDefinition.setId(service);
         routeDefinition.setUri(buildUri(service));
         routeDefinition.setPredicates(buildPredicates(serviceName));
-        routeDefinition.setFilters(buildFilters());
+        routeDefinition.setFilters(buildFilters(instance.getMetadata()));
         return routeDefinition;
     }
 
@@ -100,12 +102,17 @@ public class RouteServiceImpl implements RouteDefinitionRepository, RouteService
         return CollUtil.newArrayList(predicateDefinition);
     }
 
-    private List<FilterDefinition> buildFilters() {
-        return CollUtil.newArrayList(
+    /**
+     * @param metadata 服务实例的元数据，配置了 rate-limit.* 时在用户信息解析后限流
+     */
+    private List<FilterDefinition> buildFilters(Map<String, String> metadata) {
+        List<FilterDefinition> filters = CollUtil.newArrayList(
                 new FilterDefinition(UrlResolveGatewayFilterFactory.URL_RESOLVE),
-                new FilterDefinition(JwtTokenGatewayFilterFactory.JWT_TOKEN),
-                new FilterDefinition(AuthGatewayFilterFactory.AUTH),
-                new FilterDefinition(SpringCloudCircuitBreakerResilience4JFilterFactory.NAME));
+                new FilterDefinition(JwtTokenGatewayFilterFactory.JWT_TOKEN));
+        Optional.ofNullable(RateLimitGatewayFilterFactory.definition(metadata)).ifPresent(filters::add);
+        filters.add(new FilterDefinition(AuthGatewayFilterFactory.AUTH));
+        filters.add(new FilterDefinition(SpringCloudCircuitBreakerResilience4JFilterFactory.NAME));
+        return filters;
     }
 
     @Override
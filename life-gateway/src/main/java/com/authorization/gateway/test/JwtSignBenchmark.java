@@ -0,0 +1,72 @@
+package com.authorization.gateway.test;
+
+import com.authorization.gateway.cache.CachedUserDetail;
+import com.authorization.gateway.entity.UserDetail;
+import com.authorization.utils.json.JsonHelper;
+import com.authorization.utils.jwt.Jwts;
+import com.google.common.collect.Sets;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.Payload;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 网关中每次请求重新签名jwtToken与复用已签名的jwtToken的耗时对比，输出每次操作的平均纳秒数。
+ */
+@Slf4j
+public class JwtSignBenchmark {
+
+    private static final int WARM_UP = 50_000;
+    private static final int ITERATIONS = 500_000;
+
+    public static void main(String[] args) {
+        JWSSigner signer = Jwts.signer(Jwts.DEFAULT_SECRET);
+        JWSHeader jwsHeader = Jwts.header();
+        UnaryOperator<String> sign = payload -> Jwts.signAndSerialize(new JWSObject(jwsHeader, new Payload(payload)), signer);
+
+        String json = JsonHelper.writeValueAsString(userDetail());
+        CachedUserDetail cachedUserDetail = new CachedUserDetail(json, null);
+
+        // 预热
+        measure("warm-up-sign", WARM_UP, () -> sign.apply(json));
+        measure("warm-up-memoized", WARM_UP, () -> cachedUserDetail.getJwtToken(sign));
+
+        measure("sign per request", ITERATIONS, () -> sign.apply(json));
+        measure("memoized", ITERATIONS, () -> cachedUserDetail.getJwtToken(sign));
+    }
+
+    private static void measure(String name, int iterations, Supplier<String> operation) {
+        int blackhole = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            blackhole += operation.get().length();
+        }
+        long elapsed = System.nanoTime() - start;
+        log.info("[{}] iterations: {}, avg: {} ns/op, checksum: {}", name, iterations, elapsed / iterations, blackhole);
+    }
+
+    private static UserDetail userDetail() {
+        UserDetail userDetail = new UserDetail();
+        userDetail.setUserId(1L);
+        userDetail.setUsername("admin");
+        userDetail.setRealName("管理员");
+        userDetail.setUserPhone("18888888888");
+        userDetail.setUserEmail("admin@authorization.life");
+        userDetail.setUserGroups(Sets.newHashSet("TENANT_USER", "OPS_USER"));
+        userDetail.setEffectiveStartDate(LocalDateTime.now());
+        userDetail.setUserEnabledFlag(true);
+        userDetail.setTenantId(0L);
+        userDetail.setRoles(Sets.newHashSet("ADMIN"));
+        userDetail.setLanguage("zh_CN");
+        userDetail.setLocale(Locale.CHINA);
+        userDetail.setToken("886364eb762843d693211bd26019570b");
+        userDetail.setAuthorizationId("2094813f-6b2e-422a-97c6-072f5eca6067");
+        return userDetail;
+    }
+}
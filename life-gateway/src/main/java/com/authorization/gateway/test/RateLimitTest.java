@@ -0,0 +1,94 @@
+package com.authorization.gateway.test;
+
+import com.authorization.gateway.limiter.RateLimitConfig;
+import com.authorization.gateway.limiter.RedisRateLimiter;
+import com.authorization.redis.start.service.ReactiveStringRedisService;
+import com.authorization.redis.start.test.RedisHarness;
+import com.authorization.utils.json.JsonHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 网关限流的准确性及redis访问次数测试：多个线程持续请求同一个key，统计放行的数量是否超过限额，
+ * 并对比本地预取开启前后redis处理的命令数。
+ * <p>
+ * 需要本地启动redis，默认连接 127.0.0.1:7777(与 application.yml 相同)，可通过参数指定：host port threads
+ */
+@Slf4j
+public class RateLimitTest {
+
+    private static final long DURATION_MILLIS = 3000;
+    private static final long RATE = 200;
+    private static final long CAPACITY = 400;
+
+    public static void main(String[] args) throws Exception {
+        LettuceConnectionFactory connectionFactory = RedisHarness.connect(args);
+        int threads = RedisHarness.intArg(args, 2, 32);
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisRateLimiter rateLimiter = new RedisRateLimiter(
+                new ReactiveStringRedisService(new ReactiveStringRedisTemplate(connectionFactory), JsonHelper.getObjectMapper()), 10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (RateLimitConfig.Algorithm algorithm : RateLimitConfig.Algorithm.values()) {
+            for (int localBatch : new int[]{1, 10}) {
+                RateLimitConfig config = new RateLimitConfig()
+                        .setAlgorithm(algorithm)
+                        .setRate(RATE)
+                        .setCapacity(CAPACITY)
+                        .setWindowMillis(1000)
+                        .setLocalBatch(localBatch);
+                run(algorithm.name().toLowerCase() + "-batch-" + localBatch, executor, threads, redisTemplate, rateLimiter, config);
+            }
+        }
+
+        executor.shutdown();
+        connectionFactory.destroy();
+    }
+
+    private static void run(String name, ExecutorService executor, int threads, StringRedisTemplate redisTemplate,
+                            RedisRateLimiter rateLimiter, RateLimitConfig config) throws Exception {
+        String key = "rate-limit-test:" + name;
+        redisTemplate.delete(RedisRateLimiter.KEY_PREFIX + config.getAlgorithm().name().toLowerCase() + ":" + key);
+        AtomicLong allowed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long commandsBefore = RedisHarness.totalCommands(redisTemplate);
+        long start = System.currentTimeMillis();
+        long deadline = start + DURATION_MILLIS;
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    RedisRateLimiter.Permit permit = rateLimiter.acquire(key, config).block();
+                    if (permit != null && permit.allowed()) {
+                        allowed.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        long commands = RedisHarness.totalCommands(redisTemplate) - commandsBefore;
+        // 令牌桶：初始容量 + 期间生成的令牌；滑动窗口：每个固定窗口的计数不超过限额，开始与结束可能各跨一个窗口
+        long limit = config.getAlgorithm() == RateLimitConfig.Algorithm.TOKEN_BUCKET
+                ? config.bucketCapacity() + RATE * elapsed / 1000
+                : RATE * (elapsed / config.getWindowMillis() + 2);
+        log.info("[{}] threads: {}, elapsed: {} ms, allowed: {}, limit: {}, rejected: {}, redis commands: {}",
+                name, threads, elapsed, allowed.get(), limit, rejected.get(), commands);
+        if (allowed.get() > limit) {
+            throw new IllegalStateException("[" + name + "] 放行的请求数超过限额，限额：" + limit + "，实际：" + allowed.get());
+        }
+    }
+}
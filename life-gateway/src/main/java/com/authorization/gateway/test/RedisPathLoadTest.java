@@ -0,0 +1,126 @@
+package com.authorization.gateway.test;
+
+import com.authorization.gateway.cache.CachedUserDetail;
+import com.authorization.gateway.cache.UserDetailCache;
+import com.authorization.gateway.entity.UserDetail;
+import com.authorization.redis.start.service.ReactiveStringRedisService;
+import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.redis.start.test.RedisHarness;
+import com.authorization.utils.contsant.SecurityConstants;
+import com.authorization.utils.excutor.ExecutorManager;
+import com.authorization.utils.json.JsonHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 网关jwt过滤器加载用户信息时，阻塞与响应式两种redis访问方式的压测对比。
+ * <p>
+ * 阻塞方式：在事件循环线程上通过 {@link StringRedisService#strGet(String)} 读取并解析用户信息(改造前 UserDetailCache 的加载方式)；
+ * 响应式方式：通过 {@link UserDetailCache#get(String)} 经 {@link ReactiveStringRedisService} 非阻塞的加载。
+ * 每次请求使用不同的token，本地缓存不会命中，两种方式均访问redis。
+ * 事件循环线程数与CPU核数相同，输出每种方式在并发请求下的 p50/p99 延迟及吞吐量。
+ * <p>
+ * 需要本地启动redis，默认连接 127.0.0.1:7777(与 application.yml 相同)，可通过参数指定：host port requests
+ */
+@Slf4j
+public class RedisPathLoadTest {
+
+    private static final int CONCURRENCY = 512;
+
+    public static void main(String[] args) {
+        LettuceConnectionFactory connectionFactory = RedisHarness.connect(args);
+        int requests = RedisHarness.intArg(args, 2, 20_000);
+        StringRedisService stringRedisService = new StringRedisService(new StringRedisTemplate(connectionFactory), JsonHelper.getObjectMapper());
+        ReactiveStringRedisService reactiveStringRedisService = new ReactiveStringRedisService(
+                new ReactiveStringRedisTemplate(connectionFactory), JsonHelper.getObjectMapper());
+        UserDetailCache userDetailCache = new UserDetailCache(reactiveStringRedisService,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), requests * 4L, 600);
+        userDetailCache.afterPropertiesSet();
+        Scheduler eventLoop = Schedulers.newParallel("event-loop", ExecutorManager.getCpuProcessors());
+
+        // 阻塞方式：在事件循环线程上等待redis返回
+        Function<String, Mono<UserDetail>> blocking = token -> Mono.fromCallable(() ->
+                JsonHelper.readValue(stringRedisService.strGet(SecurityConstants.getUserTokenKey(token)), UserDetail.class));
+        // 响应式方式：发出命令后立即释放事件循环线程
+        Function<String, Mono<UserDetail>> reactive = token -> userDetailCache.get(token).map(CachedUserDetail::getUserDetail);
+
+        // 预热
+        run("warm-up-blocking", requests / 10, blocking, stringRedisService, eventLoop);
+        run("warm-up-reactive", requests / 10, reactive, stringRedisService, eventLoop);
+
+        run("blocking", requests, blocking, stringRedisService, eventLoop);
+        run("reactive", requests, reactive, stringRedisService, eventLoop);
+
+        eventLoop.dispose();
+        connectionFactory.destroy();
+    }
+
+    private static void run(String name, int requests, Function<String, Mono<UserDetail>> loader,
+                            StringRedisService stringRedisService, Scheduler eventLoop) {
+        List<String> tokens = writeUserDetails(name, requests, stringRedisService);
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        long loaded = Flux.range(0, requests)
+                .flatMap(i -> {
+                    long begin = System.nanoTime();
+                    return Mono.defer(() -> loader.apply(tokens.get(i)))
+                            .subscribeOn(eventLoop)
+                            .doOnNext(userDetail -> latencies[i] = System.nanoTime() - begin);
+                }, CONCURRENCY)
+                .count()
+                .blockOptional()
+                .orElse(0L);
+        long elapsed = System.nanoTime() - start;
+        stringRedisService.batch()
+                .delKey(tokens.stream().map(SecurityConstants::getUserTokenKey).toArray(String[]::new))
+                .execute();
+        if (loaded != requests) {
+            throw new IllegalStateException("[" + name + "] 未全部加载到用户信息，预期：" + requests + "，实际：" + loaded);
+        }
+        Arrays.sort(latencies);
+        log.info("[{}] requests: {}, concurrency: {}, throughput: {} req/s, p50: {} ms, p99: {} ms, max: {} ms",
+                name, requests, CONCURRENCY,
+                requests * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                toMillis(latencies[requests / 2]),
+                toMillis(latencies[(int) (requests * 0.99)]),
+                toMillis(latencies[requests - 1]));
+    }
+
+    /**
+     * 每个请求写入一个不同token的用户信息
+     */
+    private static List<String> writeUserDetails(String name, int requests, StringRedisService stringRedisService) {
+        List<String> tokens = new ArrayList<>(requests);
+        Map<String, String> values = new HashMap<>(requests * 2);
+        for (int i = 0; i < requests; i++) {
+            String token = "redis-path-load-test-" + name + "-" + i;
+            UserDetail userDetail = new UserDetail();
+            userDetail.setUserId((long) i);
+            userDetail.setUsername("user-" + i);
+            tokens.add(token);
+            values.put(SecurityConstants.getUserTokenKey(token), JsonHelper.writeValueAsString(userDetail));
+        }
+        stringRedisService.strMultiSet(values, 10, TimeUnit.MINUTES);
+        return tokens;
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,220 @@
+package com.authorization.redis.start.cache;
+
+import cn.hutool.core.util.StrUtil;
+import com.authorization.redis.start.config.NearCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * redis数据的本地近端缓存
+ * </p>
+ * 按key前缀划分区域，每个区域有各自的最大数量及存活时长，匹配多个前缀时使用最长的前缀。
+ * 缓存 String 的值及 Hash 的字段值，不存在的值同样缓存，收到某个key的失效通知时清除此key的所有本地数据。
+ * <p>
+ * 每个区域维护一个失效版本号，读取redis前记录版本号，写入本地缓存后版本号发生变化时清除写入的数据，
+ * 避免读取期间收到的失效通知被旧数据覆盖。
+ *
+ * @author wangjunming
+ */
+@Slf4j
+public class NearCache {
+
+    private final List<Region> regions;
+    /**
+     * 失效通知不可靠时(例如接收通知的链接断开)为false，此时读取直接访问redis
+     */
+    private volatile boolean available = true;
+    /**
+     * 是否由redis的客户端缓存推送失效通知，为false时写入方需要通过订阅通道发布失效通知
+     */
+    private volatile boolean tracking;
+
+    public NearCache(List<NearCacheProperties.Policy> policies) {
+        this.regions = policies.stream()
+                .peek(policy -> Assert.isTrue(StrUtil.isNotBlank(policy.getPrefix()), "近端缓存的key前缀不能为空。"))
+                .map(Region::new)
+                .sorted(Comparator.comparingInt((Region region) -> region.prefix.length()).reversed())
+                .toList();
+        if (regions.isEmpty()) {
+            log.warn("近端缓存未配置任何key前缀，所有读取均直接访问redis。");
+        }
+    }
+
+    /**
+     * 此key是否在本地缓存
+     *
+     * @param key key
+     * @return 匹配任意前缀时为true
+     */
+    public boolean isCached(String key) {
+        return region(key) != null;
+    }
+
+    /**
+     * 读取 String 的值，本地不存在时通过 loader 读取并缓存
+     *
+     * @param key    key
+     * @param loader 从redis中读取
+     * @return value
+     */
+    public String get(String key, Supplier<String> loader) {
+        Region region = available ? region(key) : null;
+        if (region == null) {
+            return loader.get();
+        }
+        Optional<String> cached = region.values.getIfPresent(key);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        long generation = region.generation.get();
+        String value = loader.get();
+        region.values.put(key, Optional.ofNullable(value));
+        region.checkGeneration(key, generation);
+        return value;
+    }
+
+    /**
+     * 读取 Hash 的字段值，本地不存在时通过 loader 读取并缓存
+     *
+     * @param key     key
+     * @param hashKey hashKey
+     * @param loader  从redis中读取
+     * @return value
+     */
+    public String hashGet(String key, String hashKey, Supplier<String> loader) {
+        Region region = available ? region(key) : null;
+        if (region == null) {
+            return loader.get();
+        }
+        ConcurrentMap<String, Optional<String>> fields = region.hashes.get(key, k -> new ConcurrentHashMap<>());
+        Optional<String> cached = fields.get(hashKey);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        long generation = region.generation.get();
+        String value = loader.get();
+        fields.put(hashKey, Optional.ofNullable(value));
+        region.checkGeneration(key, generation);
+        return value;
+    }
+
+    /**
+     * 清除key的本地数据
+     *
+     * @param key key
+     */
+    public void invalidate(String key) {
+        Region region = region(key);
+        if (region != null) {
+            region.invalidate(key);
+        }
+    }
+
+    /**
+     * 清除所有本地数据
+     */
+    public void invalidateAll() {
+        regions.forEach(Region::invalidateAll);
+    }
+
+    /**
+     * 所有缓存区域的key前缀
+     *
+     * @return key前缀
+     */
+    public String[] prefixes() {
+        return regions.stream().map(region -> region.prefix).toArray(String[]::new);
+    }
+
+    /**
+     * 设置失效通知是否可靠，不可靠时清除所有本地数据，读取直接访问redis
+     *
+     * @param available 是否可用
+     */
+    public void setAvailable(boolean available) {
+        this.available = available;
+        if (!available) {
+            invalidateAll();
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setTracking(boolean tracking) {
+        this.tracking = tracking;
+    }
+
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    private Region region(String key) {
+        if (key == null) {
+            return null;
+        }
+        for (Region region : regions) {
+            if (key.startsWith(region.prefix)) {
+                return region;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 一个key前缀的缓存区域
+     */
+    private static final class Region {
+
+        private final String prefix;
+        private final Cache<String, Optional<String>> values;
+        private final Cache<String, ConcurrentMap<String, Optional<String>>> hashes;
+        private final AtomicLong generation = new AtomicLong();
+
+        private Region(NearCacheProperties.Policy policy) {
+            this.prefix = policy.getPrefix();
+            this.values = Caffeine.newBuilder()
+                    .maximumSize(policy.getMaxSize())
+                    .expireAfterWrite(policy.getTtl())
+                    .build();
+            this.hashes = Caffeine.newBuilder()
+                    .maximumSize(policy.getMaxSize())
+                    .expireAfterWrite(policy.getTtl())
+                    .build();
+        }
+
+        /**
+         * 写入本地缓存期间收到失效通知时，清除刚写入的数据
+         */
+        private void checkGeneration(String key, long expected) {
+            if (generation.get() != expected) {
+                values.invalidate(key);
+                hashes.invalidate(key);
+            }
+        }
+
+        private void invalidate(String key) {
+            generation.incrementAndGet();
+            values.invalidate(key);
+            hashes.invalidate(key);
+        }
+
+        private void invalidateAll() {
+            generation.incrementAndGet();
+            values.invalidateAll();
+            hashes.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.authorization.redis.start.cache;
+
+import com.authorization.redis.start.listener.RedisSubscription;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>
+ * 近端缓存的失效通知
+ * </p>
+ * 优先使用redis6的客户端缓存：单独建立一个 RESP3 链接，以 BCAST 模式按key前缀开启 CLIENT TRACKING，
+ * 任意客户端修改、删除或过期匹配前缀的key时，redis都会推送失效通知，不需要写入方参与。
+ * 链接断开期间停用近端缓存，重连后重新开启 CLIENT TRACKING 并清除本地数据。
+ * <p>
+ * redis版本低于6、使用集群或哨兵时，使用订阅通道接收失效通知，此时只有通过 NearCacheStringRedisService 的写入才会发布通知，
+ * 其他方式的修改依赖缓存的存活时长。
+ *
+ * @author wangjunming
+ */
+@Slf4j
+public class NearCacheInvalidator implements RedisSubscription, InitializingBean, DisposableBean {
+
+    /**
+     * 订阅通道中表示清除所有本地数据的消息
+     */
+    public static final String INVALIDATE_ALL = "*";
+
+    private static final String INVALIDATE_PUSH_TYPE = "invalidate";
+
+    private final NearCache nearCache;
+    private final RedisConnectionFactory connectionFactory;
+    private final boolean trackingEnabled;
+    private final String invalidateTopic;
+    private RedisClient trackingClient;
+    private volatile StatefulRedisConnection<String, String> trackingConnection;
+
+    public NearCacheInvalidator(NearCache nearCache, RedisConnectionFactory connectionFactory, boolean trackingEnabled,
+                                String invalidateTopic) {
+        this.nearCache = nearCache;
+        this.connectionFactory = connectionFactory;
+        this.trackingEnabled = trackingEnabled;
+        this.invalidateTopic = invalidateTopic;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        boolean tracking = trackingEnabled && nearCache.prefixes().length > 0 && startTracking();
+        nearCache.setTracking(tracking);
+        log.info("Init redis near cache, prefixes: {}, invalidation: {}", String.join(",", nearCache.prefixes()),
+                tracking ? "client tracking" : "pub/sub " + invalidateTopic);
+    }
+
+    @Override
+    public void subscribe(String topic, String message) {
+        if (INVALIDATE_ALL.equals(message)) {
+            nearCache.invalidateAll();
+        } else {
+            nearCache.invalidate(message);
+        }
+    }
+
+    @Override
+    public String topicName() {
+        return invalidateTopic;
+    }
+
+    @Override
+    public void destroy() {
+        closeTracking();
+    }
+
+    /**
+     * 建立接收失效通知的链接并开启 CLIENT TRACKING
+     *
+     * @return 是否开启成功
+     */
+    private boolean startTracking() {
+        if (!(connectionFactory instanceof LettuceConnectionFactory factory)
+                || factory.isClusterAware() || factory.isRedisSentinelAware()) {
+            log.info("近端缓存仅在单机模式的lettuce链接中支持客户端缓存，使用订阅通道接收失效通知。");
+            return false;
+        }
+        try {
+            trackingClient = RedisClient.create(redisUri(factory));
+            // 客户端缓存的推送消息需要 RESP3 协议，redis版本低于6时建立链接失败
+            trackingClient.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+            trackingClient.addListener(new TrackingConnectionListener());
+            StatefulRedisConnection<String, String> connection = trackingClient.connect();
+            connection.addListener(this::onPush);
+            connection.sync().clientTracking(trackingArgs());
+            trackingConnection = connection;
+            return true;
+        } catch (Exception e) {
+            log.warn("开启redis客户端缓存失败，使用订阅通道接收失效通知。", e);
+            closeTracking();
+            return false;
+        }
+    }
+
+    private TrackingArgs trackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast().prefixes(nearCache.prefixes());
+    }
+
+    private static RedisURI redisUri(LettuceConnectionFactory factory) {
+        RedisStandaloneConfiguration configuration = factory.getStandaloneConfiguration();
+        RedisURI.Builder builder = RedisURI.builder()
+                .withHost(configuration.getHostName())
+                .withPort(configuration.getPort())
+                .withDatabase(configuration.getDatabase())
+                .withSsl(factory.isUseSsl());
+        RedisPassword password = configuration.getPassword();
+        if (password.isPresent()) {
+            if (configuration.getUsername() == null) {
+                builder.withPassword(password.get());
+            } else {
+                builder.withAuthentication(configuration.getUsername(), password.get());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 处理redis推送的失效通知，key列表为空时表示清除所有数据(例如执行了 FLUSHALL )
+     */
+    private void onPush(PushMessage message) {
+        if (!INVALIDATE_PUSH_TYPE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent();
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List<?> keyList) {
+            for (Object key : keyList) {
+                nearCache.invalidate(decode(key));
+            }
+        } else {
+            nearCache.invalidateAll();
+        }
+    }
+
+    private static String decode(Object key) {
+        if (key instanceof ByteBuffer buffer) {
+            return StringCodec.UTF8.decodeKey(buffer.duplicate());
+        }
+        return String.valueOf(key);
+    }
+
+    private void closeTracking() {
+        StatefulRedisConnection<String, String> connection = trackingConnection;
+        trackingConnection = null;
+        if (connection != null) {
+            connection.close();
+        }
+        if (trackingClient != null) {
+            trackingClient.shutdown();
+            trackingClient = null;
+        }
+    }
+
+    /**
+     * 链接断开时停用近端缓存，自动重连后重新开启 CLIENT TRACKING
+     */
+    private final class TrackingConnectionListener implements RedisConnectionStateListener {
+
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+            StatefulRedisConnection<String, String> current = trackingConnection;
+            // 首次建立链接时 trackingConnection 为空，由 startTracking 开启
+            if (current == null || !Objects.equals(current, connection)) {
+                return;
+            }
+            current.async().clientTracking(trackingArgs()).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.warn("重连后开启redis客户端缓存失败，近端缓存保持停用。", e);
+                    return;
+                }
+                log.info("重连后已重新开启redis客户端缓存，启用近端缓存。");
+                nearCache.setAvailable(true);
+            });
+        }
+
+        @Override
+        public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+            if (Objects.equals(trackingConnection, connection)) {
+                log.warn("接收失效通知的redis链接已断开，停用近端缓存。");
+                nearCache.setAvailable(false);
+            }
+        }
+
+        @Override
+        public void onRedisExceptionCaught(RedisChannelHandler<?, ?> connection, Throwable cause) {
+            log.debug("接收失效通知的redis链接异常。", cause);
+        }
+    }
+}
@@ -1,24 +1,37 @@
 package com.authorization.redis.start.config;
 
 import cn.hutool.json.JSONUtil;
+import com.authorization.redis.start.cache.NearCache;
+import com.authorization.redis.start.cache.NearCacheInvalidator;
 import com.authorization.redis.start.listener.RedisSubscription;
+import com.authorization.redis.start.lock.RedisLockRegistry;
+import com.authorization.redis.start.serializer.RedisValueCodec;
+import com.authorization.redis.start.serializer.VersionedRedisSerializer;
+import com.authorization.redis.start.service.NearCacheStringRedisService;
+import com.authorization.redis.start.service.ReactiveStringRedisService;
 import com.authorization.redis.start.service.StringRedisService;
 import com.authorization.utils.excutor.ExecutorManager;
 import com.authorization.utils.json.JsonHelper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
-import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -34,6 +47,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Slf4j
 @Configuration
 @AutoConfiguration(after = RedisAutoConfiguration.class)
+@EnableConfigurationProperties(NearCacheProperties.class)
 public class LifeRedisAutoConfiguration {
 
 //    @Bean
@@ -43,19 +57,104 @@ public class LifeRedisAutoConfiguration {
 //        return new StringRedisTemplate(redisConnectionFactory);
 //    }
 
+    /**
+     * 字符串redis工具类，开启近端缓存时为 NearCacheStringRedisService
+     *
+     * @param stringRedisTemplate redisTemplate
+     * @param scanCount           SCAN 每次遍历的数量
+     * @param nearCache           近端缓存
+     * @param nearCacheProperties 近端缓存的配置信息
+     * @return StringRedisService
+     */
     @Bean
-    public StringRedisService strRedisHelper(RedisTemplate<String, String> stringRedisTemplate) {
-        return new StringRedisService(stringRedisTemplate, JsonHelper.getObjectMapper());
+    public StringRedisService strRedisHelper(RedisTemplate<String, String> stringRedisTemplate,
+                                             @Value("${life.redis.scan-count:1000}") int scanCount,
+                                             ObjectProvider<NearCache> nearCache,
+                                             NearCacheProperties nearCacheProperties) {
+        NearCache cache = nearCache.getIfAvailable();
+        StringRedisService stringRedisService = cache == null
+                ? new StringRedisService(stringRedisTemplate, JsonHelper.getObjectMapper())
+                : new NearCacheStringRedisService(stringRedisTemplate, JsonHelper.getObjectMapper(), cache,
+                nearCacheProperties.getInvalidateTopic());
+        stringRedisService.setScanCount(scanCount);
+        return stringRedisService;
     }
 
+    /**
+     * 近端缓存，通过 life.redis.near-cache.enabled=true 开启
+     *
+     * @param nearCacheProperties 近端缓存的配置信息
+     * @return NearCache
+     */
     @Bean
+    @ConditionalOnProperty(prefix = "life.redis.near-cache", name = "enabled", havingValue = "true")
+    public NearCache nearCache(NearCacheProperties nearCacheProperties) {
+        return new NearCache(nearCacheProperties.getPolicies());
+    }
+
+    /**
+     * 近端缓存的失效通知，同时作为订阅通道的订阅器注册到 redisMessageListenerContainer
+     *
+     * @param nearCache           近端缓存
+     * @param connectionFactory   链接工厂
+     * @param nearCacheProperties 近端缓存的配置信息
+     * @return NearCacheInvalidator
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "life.redis.near-cache", name = "enabled", havingValue = "true")
     @ConditionalOnSingleCandidate(RedisConnectionFactory.class)
-    public RedisTemplate<String, Object> authRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public NearCacheInvalidator nearCacheInvalidator(NearCache nearCache, RedisConnectionFactory connectionFactory,
+                                                     NearCacheProperties nearCacheProperties) {
+        return new NearCacheInvalidator(nearCache, connectionFactory, nearCacheProperties.isTracking(),
+                nearCacheProperties.getInvalidateTopic());
+    }
+
+    /**
+     * redis分布式锁
+     *
+     * @param stringRedisTemplate redisTemplate
+     * @param leaseMillis         未指定租期时的租期，由看门狗续期，单位：毫秒
+     * @return RedisLockRegistry
+     */
+    @Bean(destroyMethod = "destroy")
+    public RedisLockRegistry redisLockRegistry(RedisTemplate<String, String> stringRedisTemplate,
+                                               @Value("${life.redis.lock.lease-millis:30000}") long leaseMillis) {
+        return new RedisLockRegistry(stringRedisTemplate, leaseMillis);
+    }
+
+    /**
+     * 响应式的字符串redis工具类，供webflux/gateway等运行在事件循环线程中的场景使用
+     *
+     * @param reactiveRedisConnectionFactory 响应式链接工厂
+     * @return ReactiveStringRedisService
+     */
+    @Bean
+    @ConditionalOnSingleCandidate(ReactiveRedisConnectionFactory.class)
+    public ReactiveStringRedisService reactiveStrRedisHelper(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        return new ReactiveStringRedisService(new ReactiveStringRedisTemplate(reactiveRedisConnectionFactory), JsonHelper.getObjectMapper());
+    }
+
+    /**
+     * 存储对象的redisTemplate，存在对应{@link RedisValueCodec}的类型可通过 auth-server.redis.codec=compact 使用紧凑的二进制格式，
+     * 默认为jdk序列化；两种格式写入的数据均可读取。
+     *
+     * @param redisConnectionFactory 链接工厂
+     * @param codecs                 紧凑格式的编解码器
+     * @param codec                  写入格式：jdk、compact
+     * @return RedisTemplate
+     */
+    @Bean
+    @ConditionalOnSingleCandidate(RedisConnectionFactory.class)
+    public RedisTemplate<String, Object> authRedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                           ObjectProvider<RedisValueCodec<?>> codecs,
+                                                           @Value("${auth-server.redis.codec:jdk}") String codec) {
+        VersionedRedisSerializer valueSerializer = new VersionedRedisSerializer(codecs.orderedStream().collect(Collectors.toList()),
+                COMPACT_CODEC.equalsIgnoreCase(codec));
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         redisTemplate.setKeySerializer(RedisSerializer.string());
-        redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer());
-        redisTemplate.setHashValueSerializer(new JdkSerializationRedisSerializer());
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashValueSerializer(valueSerializer);
         redisTemplate.afterPropertiesSet();
         log.info("Init redis-start-life RedisTemplate");
         return redisTemplate;
@@ -107,6 +206,11 @@ public class LifeRedisAutoConfiguration {
         return scheduledThreadPoolExecutor;
     }
 
+    /**
+     * 紧凑格式的配置值
+     */
+    private static final String COMPACT_CODEC = "compact";
+
     /**
      * 定时任务的线程池名称
      */
@@ -0,0 +1,62 @@
+package com.authorization.redis.start.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 近端缓存的配置信息，按key前缀配置需要缓存在本地的key
+ * <pre>
+ * life.redis.near-cache.enabled=true
+ * life.redis.near-cache.policies[0].prefix=oauth-server:auth:perm:
+ * life.redis.near-cache.policies[0].max-size=10000
+ * life.redis.near-cache.policies[0].ttl=10m
+ * </pre>
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "life.redis.near-cache")
+public class NearCacheProperties {
+
+    /**
+     * 是否开启近端缓存
+     */
+    private boolean enabled = false;
+    /**
+     * 是否使用redis6的客户端缓存(CLIENT TRACKING)接收失效通知，不支持时使用订阅通道
+     */
+    private boolean tracking = true;
+    /**
+     * 不支持客户端缓存时，发布失效通知的订阅通道
+     */
+    private String invalidateTopic = "life:near-cache:invalidate";
+    /**
+     * 每个key前缀的缓存策略
+     */
+    private List<Policy> policies = new ArrayList<>();
+
+    /**
+     * key前缀的缓存策略
+     */
+    @Setter
+    @Getter
+    public static class Policy {
+
+        /**
+         * key前缀
+         */
+        private String prefix;
+        /**
+         * 本地缓存的最大数量
+         */
+        private long maxSize = 10_000;
+        /**
+         * 本地缓存的存活时长，未收到失效通知时也会在此时长后重新读取
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,303 @@
+package com.authorization.redis.start.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * <p>
+ * redis分布式锁，由 {@link RedisLockRegistry} 创建
+ * </p>
+ * 不可重入的锁使用 SET NX PX 获取，value为持有者的标识；可重入的锁使用 hash 保存持有者及重入次数。
+ * 释放及续期均通过 lua 脚本校验持有者，不会释放或续期其他线程持有的锁，释放后发布通知唤醒等待的线程。
+ * <p>
+ * 未指定租期时使用默认租期并由看门狗续期，直到释放锁；指定租期时到期自动释放，不再续期。
+ * 租期及续期任务保存在 {@link RedisLockRegistry} 中，同名的锁对象共用，通过一个对象获取、另一个对象释放时同样停止续期。
+ * 获取失败时等待释放的通知，每次最多等待锁的剩余存活时长，持有者宕机未发布通知时也能在租期结束后获取。
+ *
+ * @author wangjunming
+ */
+@Slf4j
+public class RedisLock implements Lock {
+
+    /**
+     * 获取成功时返回空，失败时返回锁的剩余存活毫秒数
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+                    "return nil " +
+                    "end " +
+                    "return redis.call('pttl', KEYS[1])", Long.class);
+    /**
+     * 返回-1：未持有锁，0：已释放
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) ~= ARGV[1] then " +
+                    "return -1 " +
+                    "end " +
+                    "redis.call('del', KEYS[1]) " +
+                    "redis.call('publish', ARGV[3], ARGV[4]) " +
+                    "return 0", Long.class);
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('pexpire', KEYS[1], ARGV[2]) " +
+                    "end " +
+                    "return 0", Long.class);
+    private static final RedisScript<Long> REENTRANT_ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 or redis.call('hexists', KEYS[1], ARGV[1]) == 1 then " +
+                    "redis.call('hincrby', KEYS[1], ARGV[1], 1) " +
+                    "redis.call('pexpire', KEYS[1], ARGV[2]) " +
+                    "return nil " +
+                    "end " +
+                    "return redis.call('pttl', KEYS[1])", Long.class);
+    /**
+     * 返回-1：未持有锁，0：已释放，大于0：剩余的重入次数
+     */
+    private static final RedisScript<Long> REENTRANT_RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('hexists', KEYS[1], ARGV[1]) == 0 then " +
+                    "return -1 " +
+                    "end " +
+                    "local count = redis.call('hincrby', KEYS[1], ARGV[1], -1) " +
+                    "if count > 0 then " +
+                    "redis.call('pexpire', KEYS[1], ARGV[2]) " +
+                    "return count " +
+                    "end " +
+                    "redis.call('del', KEYS[1]) " +
+                    "redis.call('publish', ARGV[3], ARGV[4]) " +
+                    "return 0", Long.class);
+    private static final RedisScript<Long> REENTRANT_RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('hexists', KEYS[1], ARGV[1]) == 1 then " +
+                    "return redis.call('pexpire', KEYS[1], ARGV[2]) " +
+                    "end " +
+                    "return 0", Long.class);
+
+    /**
+     * 锁的key已存在但没有过期时间时，重新尝试获取的间隔
+     */
+    private static final long NO_TTL_RETRY_MILLIS = 100;
+
+    private final String name;
+    private final String key;
+    private final RedisLockRegistry registry;
+    private final boolean reentrant;
+
+    RedisLock(String name, RedisLockRegistry registry, boolean reentrant) {
+        Assert.hasText(name, "锁的名称不能为空。");
+        this.name = name;
+        this.key = RedisLockRegistry.KEY_PREFIX + name;
+        this.registry = registry;
+        this.reentrant = reentrant;
+    }
+
+    /**
+     * 获取锁，获取成功前一直等待，等待期间不响应中断
+     */
+    @Override
+    public void lock() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                acquire(-1, -1);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        acquire(-1, -1);
+    }
+
+    /**
+     * 尝试获取一次锁，不等待，由看门狗续期
+     *
+     * @return 是否获取成功，不可重入的锁已被当前线程持有时为false
+     */
+    @Override
+    public boolean tryLock() {
+        String token = currentToken();
+        return !heldByThisThread(token) && tryAcquire(token, registry.getDefaultLeaseMillis(), true) == null;
+    }
+
+    /**
+     * 在等待时长内获取锁，由看门狗续期
+     *
+     * @param time 等待时长
+     * @param unit 时间单位
+     * @return 是否获取成功
+     * @throws InterruptedException 等待期间被中断
+     */
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return acquire(unit.toMillis(time), -1);
+    }
+
+    /**
+     * 在等待时长内获取锁，租期结束后自动释放，不续期
+     *
+     * @param waitTime  等待时长
+     * @param leaseTime 租期
+     * @param unit      时间单位
+     * @return 是否获取成功
+     * @throws InterruptedException 等待期间被中断
+     */
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        Assert.isTrue(leaseTime > 0, "锁的租期必须大于0。");
+        return acquire(unit.toMillis(waitTime), unit.toMillis(leaseTime));
+    }
+
+    /**
+     * 释放锁，可重入的锁释放与获取相同的次数后才会释放
+     *
+     * @throws IllegalMonitorStateException 当前线程未持有锁或锁已过期
+     */
+    @Override
+    public void unlock() {
+        String token = currentToken();
+        RedisLockRegistry.Lease lease = registry.getLease(key, token);
+        long leaseMillis = lease == null ? registry.getDefaultLeaseMillis() : lease.leaseMillis();
+        Long result = registry.execute(reentrant ? REENTRANT_RELEASE_SCRIPT : RELEASE_SCRIPT, key,
+                token, String.valueOf(leaseMillis), RedisLockRegistry.UNLOCK_TOPIC, name);
+        if (result != null && result > 0) {
+            return;
+        }
+        if (lease != null) {
+            registry.removeLease(key, token, lease);
+        }
+        if (result == null || result < 0) {
+            throw new IllegalMonitorStateException("当前线程未持有锁或锁已过期：" + name);
+        }
+    }
+
+    /**
+     * 不支持条件等待
+     */
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("redis分布式锁不支持条件等待。");
+    }
+
+    /**
+     * 当前线程是否持有此锁
+     *
+     * @return boolean
+     */
+    public boolean isHeldByCurrentThread() {
+        String token = currentToken();
+        if (reentrant) {
+            return Boolean.TRUE.equals(registry.getRedisTemplate().opsForHash().hasKey(key, token));
+        }
+        return Objects.equals(token, registry.getRedisTemplate().opsForValue().get(key));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isReentrant() {
+        return reentrant;
+    }
+
+    /**
+     * @param waitMillis  等待时长，小于0时一直等待
+     * @param leaseMillis 租期，小于0时使用默认租期并由看门狗续期
+     */
+    private boolean acquire(long waitMillis, long leaseMillis) throws InterruptedException {
+        String token = currentToken();
+        if (heldByThisThread(token)) {
+            throw new IllegalStateException("不可重入的锁已被当前线程持有：" + name);
+        }
+        boolean watchdog = leaseMillis < 0;
+        long lease = watchdog ? registry.getDefaultLeaseMillis() : leaseMillis;
+        Long ttl = tryAcquire(token, lease, watchdog);
+        if (ttl == null) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + waitMillis;
+        RedisLockRegistry.Waiters waiters = registry.join(name);
+        try {
+            while (true) {
+                // 加入等待队列后再尝试一次，避免错过加入前发布的通知
+                ttl = tryAcquire(token, lease, watchdog);
+                if (ttl == null) {
+                    return true;
+                }
+                long waitFor = ttl > 0 ? ttl : NO_TTL_RETRY_MILLIS;
+                if (waitMillis >= 0) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    waitFor = Math.min(waitFor, remaining);
+                }
+                waiters.await(waitFor);
+            }
+        } finally {
+            registry.leave(name);
+        }
+    }
+
+    /**
+     * @return 获取成功时为null，否则为锁的剩余存活毫秒数
+     */
+    private Long tryAcquire(String token, long leaseMillis, boolean watchdog) {
+        Long ttl = registry.execute(reentrant ? REENTRANT_ACQUIRE_SCRIPT : ACQUIRE_SCRIPT, key, token, String.valueOf(leaseMillis));
+        if (ttl == null) {
+            // 可重入的锁重入时沿用第一次获取的租期；不可重入的锁每次获取成功都是新的租期，替换残留的记录
+            registry.putLease(key, token, !reentrant, () -> new RedisLockRegistry.Lease(leaseMillis,
+                    watchdog ? registry.scheduleRenewal(() -> renew(token), leaseMillis) : null));
+        }
+        return ttl;
+    }
+
+    /**
+     * 不可重入的锁是否已被当前线程持有，租期已结束的记录直接清除
+     */
+    private boolean heldByThisThread(String token) {
+        RedisLockRegistry.Lease lease = registry.getLease(key, token);
+        if (reentrant || lease == null) {
+            return false;
+        }
+        if (isHeldByCurrentThread()) {
+            return true;
+        }
+        registry.removeLease(key, token, lease);
+        return false;
+    }
+
+    /**
+     * 看门狗续期，锁已不再由此持有者持有时停止续期
+     */
+    private void renew(String token) {
+        RedisLockRegistry.Lease lease = registry.getLease(key, token);
+        if (lease == null) {
+            return;
+        }
+        try {
+            Long renewed = registry.execute(reentrant ? REENTRANT_RENEW_SCRIPT : RENEW_SCRIPT, key, token,
+                    String.valueOf(lease.leaseMillis()));
+            if (renewed == null || renewed == 0) {
+                log.warn("锁已过期或已被释放，停止续期：{}", name);
+                registry.removeLease(key, token, lease);
+            }
+        } catch (Exception e) {
+            // 网络异常时保留续期，下次继续尝试
+            log.warn("锁续期失败：{}", name, e);
+        }
+    }
+
+    private String currentToken() {
+        return registry.currentToken();
+    }
+}
@@ -0,0 +1,231 @@
+package com.authorization.redis.start.lock;
+
+import cn.hutool.core.util.IdUtil;
+import com.authorization.redis.start.listener.RedisSubscription;
+import com.authorization.utils.excutor.ExecutorManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * redis分布式锁的创建及公共资源
+ * </p>
+ * 释放锁时在 {@link #UNLOCK_TOPIC} 频道发布锁的名称，等待中的线程收到通知后再次尝试获取，不需要轮询；
+ * 同一节点内的等待线程按等待的先后顺序唤醒。未指定租期的锁由看门狗线程定期续期，持有锁的节点宕机后在租期结束时自动释放。
+ * <pre>
+ * RedisLock lock = redisLockRegistry.getLock("user:" + userId);
+ * if (lock.tryLock(3, TimeUnit.SECONDS)) {
+ *     try {
+ *         ...
+ *     } finally {
+ *         lock.unlock();
+ *     }
+ * }
+ * </pre>
+ *
+ * @author wangjunming
+ */
+@Slf4j
+public class RedisLockRegistry implements RedisSubscription, DisposableBean {
+
+    /**
+     * 释放锁的通知频道，消息内容为锁的名称
+     */
+    public static final String UNLOCK_TOPIC = "life:lock:unlock";
+
+    /**
+     * 锁的key前缀
+     */
+    public static final String KEY_PREFIX = "life:lock:";
+
+    private static final String WATCHDOG_NAME = "REDIS-LOCK-WATCHDOG-";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final long defaultLeaseMillis;
+    /**
+     * 当前节点的标识，与线程id组成锁的持有者
+     */
+    private final String instanceId = IdUtil.fastSimpleUUID();
+    private final ConcurrentMap<String, Waiters> waiters = new ConcurrentHashMap<>();
+    /**
+     * 当前节点中持有的锁，同名的锁对象共用
+     */
+    private final ConcurrentMap<LeaseKey, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    /**
+     * @param redisTemplate      redisTemplate
+     * @param defaultLeaseMillis 未指定租期时的租期，看门狗每隔三分之一租期续期一次
+     */
+    public RedisLockRegistry(RedisTemplate<String, String> redisTemplate, long defaultLeaseMillis) {
+        Assert.isTrue(defaultLeaseMillis >= 3, "锁的租期必须大于等于3毫秒。");
+        this.redisTemplate = redisTemplate;
+        this.defaultLeaseMillis = defaultLeaseMillis;
+        this.watchdog = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory(WATCHDOG_NAME));
+        this.watchdog.setRemoveOnCancelPolicy(true);
+        ExecutorManager.registerAndMonitorThreadPoolExecutor(WATCHDOG_NAME, watchdog);
+    }
+
+    /**
+     * 获取不可重入的锁，同一个线程重复获取同名的锁时失败，包括通过其他锁对象获取；需要重入时使用可重入的锁
+     *
+     * @param name 锁的名称
+     * @return RedisLock
+     */
+    public RedisLock getLock(String name) {
+        return new RedisLock(name, this, false);
+    }
+
+    /**
+     * 获取可重入的锁，同一个线程可以重复获取，释放相同的次数后才会释放
+     *
+     * @param name 锁的名称
+     * @return RedisLock
+     */
+    public RedisLock getReentrantLock(String name) {
+        return new RedisLock(name, this, true);
+    }
+
+    @Override
+    public void subscribe(String topic, String message) {
+        Waiters lockWaiters = waiters.get(message);
+        if (lockWaiters != null) {
+            lockWaiters.signal();
+        }
+    }
+
+    @Override
+    public String topicName() {
+        return UNLOCK_TOPIC;
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    long getDefaultLeaseMillis() {
+        return defaultLeaseMillis;
+    }
+
+    /**
+     * 当前线程作为锁的持有者的标识
+     */
+    String currentToken() {
+        return instanceId + ":" + Thread.currentThread().getId();
+    }
+
+    Long execute(RedisScript<Long> script, String key, Object... args) {
+        return redisTemplate.execute(script, List.of(key), args);
+    }
+
+    RedisTemplate<String, String> getRedisTemplate() {
+        return redisTemplate;
+    }
+
+    /**
+     * 加入锁的等待队列，等待结束后需要调用 {@link #leave(String)}
+     */
+    Waiters join(String name) {
+        return waiters.compute(name, (key, lockWaiters) -> {
+            Waiters joined = lockWaiters == null ? new Waiters() : lockWaiters;
+            joined.count++;
+            return joined;
+        });
+    }
+
+    void leave(String name) {
+        waiters.computeIfPresent(name, (key, lockWaiters) -> --lockWaiters.count == 0 ? null : lockWaiters);
+    }
+
+    Lease getLease(String key, String token) {
+        return leases.get(new LeaseKey(key, token));
+    }
+
+    /**
+     * 记录获取成功的租期
+     *
+     * @param replace 是否替换已有的记录，替换时停止原记录的续期
+     */
+    void putLease(String key, String token, boolean replace, Supplier<Lease> lease) {
+        LeaseKey leaseKey = new LeaseKey(key, token);
+        if (!replace) {
+            leases.computeIfAbsent(leaseKey, k -> lease.get());
+            return;
+        }
+        Lease previous = leases.put(leaseKey, lease.get());
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * 删除租期的记录并停止续期，记录已被替换时不处理
+     */
+    void removeLease(String key, String token, Lease lease) {
+        if (leases.remove(new LeaseKey(key, token), lease)) {
+            lease.cancel();
+        }
+    }
+
+    ScheduledFuture<?> scheduleRenewal(Runnable renewal, long leaseMillis) {
+        long period = leaseMillis / 3;
+        return watchdog.scheduleWithFixedDelay(renewal, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private record LeaseKey(String key, String token) {
+    }
+
+    /**
+     * 租期及看门狗的续期任务
+     */
+    record Lease(long leaseMillis, ScheduledFuture<?> renewal) {
+
+        void cancel() {
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 同一个锁在当前节点的等待线程，公平的信号量保证按等待的先后顺序唤醒
+     */
+    static final class Waiters {
+
+        private final Semaphore semaphore = new Semaphore(0, true);
+        /**
+         * 等待的线程数量，只在 ConcurrentHashMap.compute 中修改
+         */
+        private int count;
+
+        /**
+         * 等待锁释放的通知，最多等待 timeoutMillis 毫秒
+         *
+         * @return 是否收到通知
+         */
+        boolean await(long timeoutMillis) throws InterruptedException {
+            return semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 唤醒一个等待的线程
+         */
+        void signal() {
+            semaphore.release();
+        }
+    }
+}
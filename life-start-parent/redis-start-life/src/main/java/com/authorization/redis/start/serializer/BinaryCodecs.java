@@ -0,0 +1,248 @@
+package com.authorization.redis.start.serializer;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link RedisValueCodec}中常用字段的读写工具。
+ * <p>
+ * 字符串以长度+UTF-8字节写入，长度为-1表示null；{@link #writeValue(DataOutputStream, Object)}以类型标识+数据写入，
+ * 支持常见的基础类型、集合及字符串为key的Map，其余类型以jdk序列化后的字节写入。
+ */
+public final class BinaryCodecs {
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_BOOLEAN = 4;
+    private static final byte TAG_INSTANT = 5;
+    private static final byte TAG_SET = 6;
+    private static final byte TAG_LIST = 7;
+    private static final byte TAG_MAP = 8;
+    private static final byte TAG_JDK = 9;
+
+    private static final int NULL_LENGTH = -1;
+    private static final JdkSerializationRedisSerializer JDK_SERIALIZER = new JdkSerializationRedisSerializer();
+
+    private BinaryCodecs() {
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    public static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    public static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    public static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    public static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    public static Set<String> readStringSet(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size == NULL_LENGTH) {
+            return null;
+        }
+        Set<String> values = new LinkedHashSet<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    /**
+     * 写入任意类型的数据
+     *
+     * @param out   输出流
+     * @param value 数据
+     * @throws IOException 写入异常
+     */
+    public static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Instant) {
+            out.writeByte(TAG_INSTANT);
+            writeInstant(out, (Instant) value);
+        } else if (value instanceof Set || value instanceof List) {
+            Collection<?> values = (Collection<?>) value;
+            out.writeByte(value instanceof Set ? TAG_SET : TAG_LIST);
+            out.writeInt(values.size());
+            for (Object element : values) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof Map && hasStringKeys((Map<?, ?>) value)) {
+            writeMap(out, (Map<?, ?>) value);
+        } else {
+            out.writeByte(TAG_JDK);
+            writeBytes(out, JDK_SERIALIZER.serialize(value));
+        }
+    }
+
+    /**
+     * 读取{@link #writeValue(DataOutputStream, Object)}写入的数据
+     *
+     * @param in 输入流
+     * @return 数据
+     * @throws IOException 读取异常
+     */
+    public static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return readString(in);
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_INTEGER:
+                return in.readInt();
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_INSTANT:
+                return readInstant(in);
+            case TAG_SET: {
+                int size = in.readInt();
+                Set<Object> values = new LinkedHashSet<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    values.add(readValue(in));
+                }
+                return values;
+            }
+            case TAG_LIST: {
+                int size = in.readInt();
+                List<Object> values = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    values.add(readValue(in));
+                }
+                return values;
+            }
+            case TAG_MAP:
+                return readMapBody(in);
+            case TAG_JDK:
+                return JDK_SERIALIZER.deserialize(readBytes(in));
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * 写入字符串为key的Map，value支持的类型同{@link #writeValue(DataOutputStream, Object)}
+     *
+     * @param out 输出流
+     * @param map map
+     * @throws IOException 写入异常
+     */
+    public static void writeMap(DataOutputStream out, Map<?, ?> map) throws IOException {
+        if (map == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+        out.writeByte(TAG_MAP);
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeString(out, (String) entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    /**
+     * 读取{@link #writeMap(DataOutputStream, Map)}写入的Map
+     *
+     * @param in 输入流
+     * @return map
+     * @throws IOException 读取异常
+     */
+    public static Map<String, Object> readMap(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        if (tag == TAG_NULL) {
+            return null;
+        }
+        if (tag != TAG_MAP) {
+            throw new IOException("Unexpected value tag " + tag + ", expected map");
+        }
+        return readMapBody(in);
+    }
+
+    private static Map<String, Object> readMapBody(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Object> map = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(in), readValue(in));
+        }
+        return map;
+    }
+
+    private static boolean hasStringKeys(Map<?, ?> map) {
+        for (Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
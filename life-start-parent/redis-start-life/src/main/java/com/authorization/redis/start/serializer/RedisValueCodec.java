@@ -0,0 +1,55 @@
+package com.authorization.redis.start.serializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * 指定类型的紧凑二进制编解码器，由{@link VersionedRedisSerializer}在数据头中记录编解码器id及版本号。
+ * <p>
+ * 调整编码格式时需要提升{@link #version()}，并在{@link #read(DataInputStream, byte)}中保留对旧版本数据的读取。
+ *
+ * @param <T> 编解码的类型
+ */
+public interface RedisValueCodec<T> {
+
+    /**
+     * 编解码器id，同一个序列化器中不可重复
+     *
+     * @return 编解码器id
+     */
+    byte codecId();
+
+    /**
+     * 当前写入数据的格式版本
+     *
+     * @return 版本号
+     */
+    byte version();
+
+    /**
+     * 支持编解码的类型，仅匹配此类型本身，不匹配子类
+     *
+     * @return 类型
+     */
+    Class<T> type();
+
+    /**
+     * 按当前版本的格式写入数据
+     *
+     * @param value 数据
+     * @param out   输出流
+     * @throws IOException 写入异常
+     */
+    void write(T value, DataOutputStream out) throws IOException;
+
+    /**
+     * 按数据头中记录的版本读取数据
+     *
+     * @param in      输入流
+     * @param version 数据写入时的版本
+     * @return 数据
+     * @throws IOException 读取异常
+     */
+    T read(DataInputStream in, byte version) throws IOException;
+}
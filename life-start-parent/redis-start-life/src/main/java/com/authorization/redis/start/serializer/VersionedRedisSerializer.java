@@ -0,0 +1,96 @@
+package com.authorization.redis.start.serializer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带版本号的redis值序列化器。
+ * <p>
+ * 存在对应{@link RedisValueCodec}的类型使用紧凑的二进制格式：[MAGIC][编解码器id][版本号][数据]，其余类型使用jdk序列化。
+ * <p>
+ * 读取时根据首字节区分格式，jdk序列化的数据以 0xACED 开头，因此切换格式前写入的数据仍可正常读取；
+ * 关闭紧凑格式时只影响写入，已写入的紧凑格式数据同样可以读取，便于灰度及回滚。
+ */
+@Slf4j
+public class VersionedRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * 紧凑格式的首字节，与jdk序列化的首字节 0xAC 区分
+     */
+    static final byte MAGIC = (byte) 0xC5;
+    private static final int HEADER_LENGTH = 3;
+
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+    private final Map<Class<?>, RedisValueCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Byte, RedisValueCodec<?>> codecsById = new HashMap<>();
+    private final boolean compactEnabled;
+
+    /**
+     * @param codecs         紧凑格式的编解码器
+     * @param compactEnabled 是否以紧凑格式写入，false时仍可读取紧凑格式的数据
+     */
+    public VersionedRedisSerializer(List<RedisValueCodec<?>> codecs, boolean compactEnabled) {
+        for (RedisValueCodec<?> codec : codecs) {
+            RedisValueCodec<?> exist = codecsById.put(codec.codecId(), codec);
+            if (exist != null) {
+                throw new IllegalStateException("Duplicate redis value codec id " + codec.codecId()
+                        + ": " + exist.getClass().getName() + ", " + codec.getClass().getName());
+            }
+            codecsByType.put(codec.type(), codec);
+        }
+        this.compactEnabled = compactEnabled;
+        log.info("Init VersionedRedisSerializer, compactEnabled: {}, codecs: {}", compactEnabled, codecsByType.keySet());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        RedisValueCodec<Object> codec = value == null || !compactEnabled ? null : (RedisValueCodec<Object>) codecsByType.get(value.getClass());
+        if (codec == null) {
+            return jdkSerializer.serialize(value);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(codec.codecId());
+            out.writeByte(codec.version());
+            codec.write(value, out);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize " + value.getClass().getName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return jdkSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Cannot deserialize, broken header");
+        }
+        RedisValueCodec<?> codec = codecsById.get(bytes[1]);
+        if (codec == null) {
+            throw new SerializationException("Cannot deserialize, unknown codec id " + bytes[1]);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH))) {
+            return codec.read(in, bytes[2]);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot deserialize " + codec.type().getName() + ", version " + bytes[2], e);
+        }
+    }
+}
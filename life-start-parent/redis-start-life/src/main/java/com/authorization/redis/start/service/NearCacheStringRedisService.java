@@ -0,0 +1,189 @@
+package com.authorization.redis.start.service;
+
+import com.authorization.redis.start.cache.NearCache;
+import com.authorization.redis.start.cache.NearCacheInvalidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>
+ * 带有本地近端缓存的{@link StringRedisService}，通过 life.redis.near-cache.enabled=true 开启
+ * </p>
+ * 匹配缓存前缀的 strGet、hashGet 优先读取本地缓存，其余方法与 StringRedisService 相同。
+ * strGet 带有过期时间的方法需要在redis中续期，不读取本地缓存。
+ * <p>
+ * 通过此类写入或删除缓存的key时立即清除本地数据；使用订阅通道接收失效通知时同时发布通知，由其他节点清除本地数据。
+ *
+ * @author wangjunming
+ * @see NearCache
+ * @see NearCacheInvalidator
+ */
+public class NearCacheStringRedisService extends StringRedisService {
+
+    private final NearCache nearCache;
+    private final String invalidateTopic;
+
+    public NearCacheStringRedisService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                                       NearCache nearCache, String invalidateTopic) {
+        super(redisTemplate, objectMapper);
+        this.nearCache = nearCache;
+        this.invalidateTopic = invalidateTopic;
+    }
+
+    @Override
+    public String strGet(String key) {
+        return nearCache.get(key, () -> super.strGet(key));
+    }
+
+    @Override
+    public <T> T strGet(String key, Class<T> clazz) {
+        String value = this.strGet(key);
+        return value == null ? null : fromJson(value, clazz);
+    }
+
+    /**
+     * 缓存的key从本地缓存的字符串中解析，其余key直接从字节中解析
+     */
+    @Override
+    public <T> T jsonGet(String key, Class<T> clazz) {
+        return nearCache.isCached(key) ? this.strGet(key, clazz) : super.jsonGet(key, clazz);
+    }
+
+    @Override
+    public String hashGet(String key, String hashKey) {
+        return nearCache.hashGet(key, hashKey, () -> super.hashGet(key, hashKey));
+    }
+
+    @Override
+    public void delKey(String key) {
+        super.delKey(key);
+        invalidate(key);
+    }
+
+    @Override
+    public void strSet(String key, String value, long expire, TimeUnit timeUnit) {
+        super.strSet(key, value, expire, timeUnit);
+        invalidate(key);
+    }
+
+    @Override
+    public <T> void strSet(String key, T value, long expire, TimeUnit timeUnit) {
+        super.strSet(key, value, expire, timeUnit);
+        invalidate(key);
+    }
+
+    @Override
+    public void strSet(String key, String value) {
+        super.strSet(key, value);
+        invalidate(key);
+    }
+
+    @Override
+    public <T> void strSet(String key, T value) {
+        super.strSet(key, value);
+        invalidate(key);
+    }
+
+    @Override
+    public <T> void jsonSet(String key, T value, long expire, TimeUnit timeUnit) {
+        super.jsonSet(key, value, expire, timeUnit);
+        invalidate(key);
+    }
+
+    @Override
+    public void strMultiSet(Map<String, String> map) {
+        super.strMultiSet(map);
+        if (map != null) {
+            map.keySet().forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public Long strIncrement(String key, Long delta) {
+        Long value = super.strIncrement(key, delta);
+        invalidate(key);
+        return value;
+    }
+
+    @Override
+    public void hashPut(String key, String hashKey, String value) {
+        super.hashPut(key, hashKey, value);
+        invalidate(key);
+    }
+
+    @Override
+    public void hashPutAll(String key, Map<String, String> map) {
+        super.hashPutAll(key, map);
+        invalidate(key);
+    }
+
+    @Override
+    public Boolean hashPutSerial(String key, String hashKey, byte[] value) {
+        Boolean result = super.hashPutSerial(key, hashKey, value);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public void hashDelete(String key, Object... hashKeys) {
+        super.hashDelete(key, hashKeys);
+        invalidate(key);
+    }
+
+    @Override
+    public void hashRemove(String key, Object[] hashKeys) {
+        super.hashRemove(key, hashKeys);
+        invalidate(key);
+    }
+
+    /**
+     * 脚本可能写入 KEYS 中的任意key，执行后全部清除
+     */
+    @Override
+    public <T> T executeScript(RedisScript<T> script, List<String> keys, Object... args) {
+        T result = super.executeScript(script, keys, args);
+        if (keys != null) {
+            keys.forEach(this::invalidate);
+        }
+        return result;
+    }
+
+    @Override
+    public long unlinkKeys(String pattern, int count, int batchSize, LongConsumer progress) {
+        long deleted = super.unlinkKeys(pattern, count, batchSize, progress);
+        if (deleted > 0) {
+            nearCache.invalidateAll();
+            publish(NearCacheInvalidator.INVALIDATE_ALL);
+        }
+        return deleted;
+    }
+
+    @Override
+    protected void afterBatch(Collection<String> writeKeys) {
+        writeKeys.forEach(this::invalidate);
+    }
+
+    private void invalidate(String key) {
+        if (!nearCache.isCached(key)) {
+            return;
+        }
+        nearCache.invalidate(key);
+        publish(key);
+    }
+
+    /**
+     * 使用客户端缓存时由redis推送失效通知，不需要发布
+     */
+    private void publish(String message) {
+        if (!nearCache.isTracking()) {
+            super.convertAndSend(invalidateTopic, message);
+        }
+    }
+}
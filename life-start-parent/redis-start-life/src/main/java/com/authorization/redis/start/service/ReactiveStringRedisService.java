@@ -0,0 +1,382 @@
+package com.authorization.redis.start.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveSetOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 存储字符串的响应式redis工具类，{@link StringRedisService}的非阻塞版本，
+ * 供运行在 netty 事件循环线程中的 webflux/gateway 使用，所有操作均不会阻塞调用线程。
+ */
+@Slf4j
+public class ReactiveStringRedisService {
+
+    private final ObjectMapper objectMapper;
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public ReactiveStringRedisService(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * 删除key
+     *
+     * @param keys keys
+     * @return 删除的数量
+     */
+    public Mono<Long> delKey(String... keys) {
+        return this.currentRestTemplate().delete(keys);
+    }
+
+    /**
+     * 设置过期时间,默认一天
+     *
+     * @param key key
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> setExpire(String key) {
+        return this.setExpire(key, RedisConstant.DEFAULT_EXPIRE, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 设置过期时间
+     *
+     * @param key      key
+     * @param expire   expire 存活时长
+     * @param timeUnit 时间单位
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> setExpire(String key, long expire, TimeUnit timeUnit) {
+        return this.currentRestTemplate().expire(key, toDuration(expire, timeUnit));
+    }
+
+    /**
+     * 像订阅通道发布消息
+     *
+     * @param channel 订阅topic
+     * @param message 消息
+     * @return 接收到消息的订阅者数量
+     */
+    public Mono<Long> convertAndSend(String channel, Object message) {
+        return this.currentRestTemplate().convertAndSend(channel, toJson(message));
+    }
+
+    /**
+     * String 设置值
+     *
+     * @param key   key
+     * @param value value
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> strSet(String key, String value) {
+        return this.getValueOpr().set(key, value);
+    }
+
+    /**
+     * String 设置值
+     *
+     * @param key      key
+     * @param value    value
+     * @param expire   expire
+     * @param timeUnit 时间单位
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> strSet(String key, String value, long expire, TimeUnit timeUnit) {
+        return this.getValueOpr().set(key, value, toDuration(expire, timeUnit));
+    }
+
+    /**
+     * String 设置值
+     *
+     * @param key      key
+     * @param value    value
+     * @param expire   expire
+     * @param timeUnit 时间单位
+     * @return Mono Boolean
+     */
+    public <T> Mono<Boolean> strSet(String key, T value, long expire, TimeUnit timeUnit) {
+        return this.getValueOpr().set(key, this.toJson(value), toDuration(expire, timeUnit));
+    }
+
+    /**
+     * String 获取值
+     *
+     * @param key key
+     * @return 不存在时为 Mono.empty()
+     */
+    public Mono<String> strGet(String key) {
+        return this.getValueOpr().get(key);
+    }
+
+    /**
+     * String 获取值
+     *
+     * @param key   key
+     * @param clazz clazz
+     * @return 不存在或无法解析时为 Mono.empty()
+     */
+    public <T> Mono<T> strGet(String key, Class<T> clazz) {
+        return this.getValueOpr().get(key).mapNotNull(value -> fromJson(value, clazz));
+    }
+
+    /**
+     * String 批量获取值，使用 MGET 一次获取
+     *
+     * @param keys key
+     * @return 与key的顺序一致，不存在的key对应的值为null
+     */
+    public Mono<List<String>> strMultiGet(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return this.getValueOpr().multiGet(keys);
+    }
+
+    /**
+     * String 批量设置值，使用 MSET 一次设置，不设置过期时间
+     *
+     * @param map key -> value
+     * @return 是否设置成功
+     */
+    public Mono<Boolean> strMultiSet(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return Mono.just(Boolean.TRUE);
+        }
+        return this.getValueOpr().multiSet(map);
+    }
+
+    /**
+     * String 获取自增字段，递减字段可使用delta为负数的方式
+     *
+     * @param key   key
+     * @param delta 步长
+     * @return 自增后的值
+     */
+    public Mono<Long> strIncrement(String key, long delta) {
+        return this.getValueOpr().increment(key, delta);
+    }
+
+    /**
+     * 执行lua脚本，脚本内的多个命令在redis中原子执行，只需要一次往返
+     *
+     * @param script 脚本，优先使用 EVALSHA 执行，redis中不存在时自动使用 EVAL
+     * @param keys   脚本中的 KEYS
+     * @param args   脚本中的 ARGV
+     * @param <T>    返回值类型
+     * @return 脚本的返回值
+     */
+    public <T> Mono<T> executeScript(RedisScript<T> script, List<String> keys, List<String> args) {
+        return this.currentRestTemplate().execute(script, keys, args).next();
+    }
+
+    /**
+     * Set 将一个或多个元素添加到给定的集合里面，已经存在于集合的元素会自动的被忽略， 命令返回新添加到集合的元素数量。
+     *
+     * @param key    key
+     * @param values values
+     * @return 新添加的数量
+     */
+    public Mono<Long> setAdd(String key, String... values) {
+        return this.getSetOpr().add(key, values);
+    }
+
+    /**
+     * Set 将返回集合中所有的元素。
+     *
+     * @param key key
+     * @return Flux
+     */
+    public Flux<String> setMembers(String key) {
+        return this.getSetOpr().members(key);
+    }
+
+    /**
+     * Set 检查给定的元素是否存在于集合
+     *
+     * @param key key
+     * @param o   被检测元素
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> setIsmember(String key, String o) {
+        return this.getSetOpr().isMember(key, o);
+    }
+
+    /**
+     * Set 返回集合包含的元素数量（也即是集合的基数）
+     *
+     * @param key key
+     * @return Mono Long
+     */
+    public Mono<Long> setSize(String key) {
+        return this.getSetOpr().size(key);
+    }
+
+    /**
+     * Set 删除数据
+     *
+     * @param key    key
+     * @param values values
+     * @return 删除的数量
+     */
+    public Mono<Long> setRemove(String key, String... values) {
+        return this.getSetOpr().remove(key, (Object[]) values);
+    }
+
+    /**
+     * Hash 将哈希表 key 中的域 field的值设为 value。
+     *
+     * @param key     key
+     * @param hashKey hashKey
+     * @param value   value
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> hashPut(String key, String hashKey, String value) {
+        return this.getHashOpr().put(key, hashKey, value);
+    }
+
+    /**
+     * Hash 批量插入值，Map的key代表Field
+     *
+     * @param key key
+     * @param map map
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> hashPutAll(String key, Map<String, String> map) {
+        return this.getHashOpr().putAll(key, map);
+    }
+
+    /**
+     * Hash 返回哈希表 key 中给定域 field的值
+     *
+     * @param key     key
+     * @param hashKey hashKey
+     * @return 不存在时为 Mono.empty()
+     */
+    public Mono<String> hashGet(String key, String hashKey) {
+        return this.getHashOpr().get(key, hashKey);
+    }
+
+    /**
+     * Hash 返回散列键 key 中，一个或多个域的值，相当于同时执行多个 HGET
+     *
+     * @param key      key
+     * @param hashKeys hashKeys
+     * @return Mono List
+     */
+    public Mono<List<String>> hashMultiGet(String key, Collection<String> hashKeys) {
+        return this.getHashOpr().multiGet(key, hashKeys);
+    }
+
+    /**
+     * Hash 获取散列Key中所有的键值对
+     *
+     * @param key key
+     * @return Mono Map
+     */
+    public Mono<Map<String, String>> hashGetAll(String key) {
+        return this.getHashOpr().entries(key).collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Hash 查看哈希表 key 中，给定域 field是否存在
+     *
+     * @param key     key
+     * @param hashKey hashKey
+     * @return Mono Boolean
+     */
+    public Mono<Boolean> hashHasKey(String key, String hashKey) {
+        return this.getHashOpr().hasKey(key, hashKey);
+    }
+
+    /**
+     * Hash 删除散列键 key 中的一个或多个指定域
+     *
+     * @param key      key
+     * @param hashKeys hashKeys
+     * @return 删除的数量
+     */
+    public Mono<Long> hashDelete(String key, Object... hashKeys) {
+        return this.getHashOpr().remove(key, hashKeys);
+    }
+
+    /**
+     * Object转成JSON数据
+     *
+     * @param object object
+     * @param <T>    object预期类型
+     * @return json
+     */
+    public <T> String toJson(T object) {
+        if (object == null) {
+            return RedisConstant.STR_EMPTY;
+        }
+        if (object instanceof Integer || object instanceof Long || object instanceof Float || object instanceof Double
+                || object instanceof Boolean || object instanceof String) {
+            return String.valueOf(object);
+        }
+        try {
+            return objectMapper.writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            return RedisConstant.STR_EMPTY;
+        }
+    }
+
+    /**
+     * JSON数据，转成Object
+     *
+     * @param json  json字符串
+     * @param clazz 预期类型
+     * @param <T>   泛型
+     * @return object
+     */
+    public <T> T fromJson(String json, Class<T> clazz) {
+        if (StrUtil.isBlank(json) || clazz == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, clazz);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static Duration toDuration(long expire, TimeUnit timeUnit) {
+        return Duration.ofMillis((timeUnit == null ? TimeUnit.SECONDS : timeUnit).toMillis(expire));
+    }
+
+    private ReactiveValueOperations<String, String> getValueOpr() {
+        return this.currentRestTemplate().opsForValue();
+    }
+
+    private ReactiveHashOperations<String, String, String> getHashOpr() {
+        return this.currentRestTemplate().opsForHash();
+    }
+
+    private ReactiveSetOperations<String, String> getSetOpr() {
+        return this.currentRestTemplate().opsForSet();
+    }
+
+    private ReactiveStringRedisTemplate currentRestTemplate() {
+        return this.redisTemplate;
+    }
+}
@@ -0,0 +1,427 @@
+package com.authorization.redis.start.service;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * redis批量命令，由 {@link StringRedisService#batch()} 创建
+ * </p>
+ * 先记录命令，调用 {@link #execute()} 时通过 executePipelined 一次发送，只产生一次网络往返。
+ * 命令按添加的顺序执行，返回结果的下标与添加命令的顺序一致。
+ * <pre>
+ * RedisBatch.Result result = stringRedisService.batch()
+ *         .setAdd(indexKey, authId)
+ *         .expire(indexKey, RedisConstant.DEFAULT_EXPIRE, TimeUnit.SECONDS)
+ *         .strSet(key, value, 1, TimeUnit.DAYS)
+ *         .execute();
+ * Long added = result.get(0);
+ * </pre>
+ * 管道中的命令不是原子执行的，需要原子性时使用 lua 脚本。此对象不是线程安全的，执行后不可再次使用。
+ *
+ * @author wangjunming
+ */
+public class RedisBatch {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final StringRedisService stringRedisService;
+    private final List<Command> commands = new ArrayList<>();
+    /**
+     * 写入或删除的key，执行后交给 {@link StringRedisService#afterBatch(Collection)}
+     */
+    private final List<String> writeKeys = new ArrayList<>();
+    private boolean executed;
+
+    RedisBatch(RedisTemplate<String, String> redisTemplate, StringRedisService stringRedisService) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisService = stringRedisService;
+    }
+
+    /**
+     * 删除key，结果为删除的数量
+     *
+     * @param keys key
+     * @return RedisBatch
+     */
+    public RedisBatch delKey(String... keys) {
+        List<String> keyList = Arrays.asList(keys);
+        writeKeys.addAll(keyList);
+        return add(operations -> operations.delete(keyList), false);
+    }
+
+    /**
+     * 设置过期时间，结果为是否设置成功
+     *
+     * @param key      key
+     * @param expire   存活时长
+     * @param timeUnit 时间单位，为空时为秒
+     * @return RedisBatch
+     */
+    public RedisBatch expire(String key, long expire, TimeUnit timeUnit) {
+        TimeUnit unit = timeUnit == null ? TimeUnit.SECONDS : timeUnit;
+        return add(operations -> operations.expire(key, expire, unit), false);
+    }
+
+    /**
+     * 向订阅通道发布消息，结果为接收到消息的订阅者数量
+     *
+     * @param channel 订阅topic
+     * @param message 消息
+     * @return RedisBatch
+     */
+    public RedisBatch convertAndSend(String channel, Object message) {
+        String json = stringRedisService.toJson(message);
+        return add(operations -> operations.convertAndSend(channel, json), false);
+    }
+
+    /**
+     * String 设置值，结果为是否设置成功
+     *
+     * @param key   key
+     * @param value value
+     * @return RedisBatch
+     */
+    public RedisBatch strSet(String key, String value) {
+        writeKeys.add(key);
+        return add(operations -> operations.opsForValue().set(key, value), false);
+    }
+
+    /**
+     * String 设置值，结果为是否设置成功
+     *
+     * @param key      key
+     * @param value    value
+     * @param expire   存活时长
+     * @param timeUnit 时间单位
+     * @return RedisBatch
+     */
+    public RedisBatch strSet(String key, String value, long expire, TimeUnit timeUnit) {
+        writeKeys.add(key);
+        return add(operations -> operations.opsForValue().set(key, value, expire, timeUnit), false);
+    }
+
+    /**
+     * String 设置值，对象转为json保存，结果为是否设置成功
+     *
+     * @param key      key
+     * @param value    value
+     * @param expire   存活时长
+     * @param timeUnit 时间单位
+     * @return RedisBatch
+     */
+    public <T> RedisBatch strSet(String key, T value, long expire, TimeUnit timeUnit) {
+        return strSet(key, stringRedisService.toJson(value), expire, timeUnit);
+    }
+
+    /**
+     * String 获取值，结果为 String
+     *
+     * @param key key
+     * @return RedisBatch
+     */
+    public RedisBatch strGet(String key) {
+        return add(operations -> operations.opsForValue().get(key), false);
+    }
+
+    /**
+     * String 获取值，结果为json转换后的对象
+     *
+     * @param key   key
+     * @param clazz 预期类型
+     * @return RedisBatch
+     */
+    public <T> RedisBatch strGet(String key, Class<T> clazz) {
+        return add(operations -> operations.opsForValue().get(key), false,
+                value -> value == null ? null : stringRedisService.fromJson((String) value, clazz));
+    }
+
+    /**
+     * String 批量获取值，结果为 List&lt;String&gt;，与key的顺序一致
+     *
+     * @param keys key
+     * @return RedisBatch
+     */
+    public RedisBatch strMultiGet(Collection<String> keys) {
+        return add(operations -> operations.opsForValue().multiGet(keys), false);
+    }
+
+    /**
+     * String 自增，结果为自增后的值
+     *
+     * @param key   key
+     * @param delta 步长
+     * @return RedisBatch
+     */
+    public RedisBatch strIncrement(String key, long delta) {
+        writeKeys.add(key);
+        return add(operations -> operations.opsForValue().increment(key, delta), false);
+    }
+
+    /**
+     * List 推入数据至列表右端，结果为列表的长度
+     *
+     * @param key   key
+     * @param value value
+     * @return RedisBatch
+     */
+    public RedisBatch lstRightPush(String key, String value) {
+        return add(operations -> operations.opsForList().rightPush(key, value), false);
+    }
+
+    /**
+     * List 推入数据至列表左端，结果为列表的长度
+     *
+     * @param key   key
+     * @param value value
+     * @return RedisBatch
+     */
+    public RedisBatch lstLeftPush(String key, String value) {
+        return add(operations -> operations.opsForList().leftPush(key, value), false);
+    }
+
+    /**
+     * Set 添加元素，结果为新增的数量
+     *
+     * @param key    key
+     * @param values values
+     * @return RedisBatch
+     */
+    public RedisBatch setAdd(String key, String... values) {
+        return add(operations -> operations.opsForSet().add(key, values), false);
+    }
+
+    /**
+     * Set 删除元素，结果为删除的数量
+     *
+     * @param key    key
+     * @param values values
+     * @return RedisBatch
+     */
+    public RedisBatch setRemove(String key, Object... values) {
+        return add(operations -> operations.opsForSet().remove(key, values), false);
+    }
+
+    /**
+     * Set 获取所有元素，结果为 Set&lt;String&gt;
+     *
+     * @param key key
+     * @return RedisBatch
+     */
+    public RedisBatch setMembers(String key) {
+        return add(operations -> operations.opsForSet().members(key), false);
+    }
+
+    /**
+     * ZSet 添加元素，结果为是否新增
+     *
+     * @param key   key
+     * @param value value
+     * @param score 分数
+     * @return RedisBatch
+     */
+    public RedisBatch zSetAdd(String key, String value, double score) {
+        return add(operations -> operations.opsForZSet().add(key, value, score), false);
+    }
+
+    /**
+     * Hash 设置值，结果为是否新增
+     *
+     * @param key     key
+     * @param hashKey hashKey
+     * @param value   value
+     * @return RedisBatch
+     */
+    public RedisBatch hashPut(String key, String hashKey, String value) {
+        writeKeys.add(key);
+        return add(operations -> operations.opsForHash().put(key, hashKey, value), false);
+    }
+
+    /**
+     * Hash 批量设置值，结果为null
+     *
+     * @param key key
+     * @param map map
+     * @return RedisBatch
+     */
+    public RedisBatch hashPutAll(String key, Map<String, String> map) {
+        writeKeys.add(key);
+        return add(operations -> operations.opsForHash().putAll(key, map), true);
+    }
+
+    /**
+     * Hash 获取值，结果为 String
+     *
+     * @param key     key
+     * @param hashKey hashKey
+     * @return RedisBatch
+     */
+    public RedisBatch hashGet(String key, String hashKey) {
+        return add(operations -> operations.opsForHash().get(key, hashKey), false);
+    }
+
+    /**
+     * Hash 获取所有值，结果为 Map&lt;String, String&gt;
+     *
+     * @param key key
+     * @return RedisBatch
+     */
+    public RedisBatch hashGetAll(String key) {
+        return add(operations -> operations.opsForHash().entries(key), false);
+    }
+
+    /**
+     * 当前记录的命令数量
+     *
+     * @return int
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 通过管道发送所有命令
+     *
+     * @return 每个命令的结果，下标与添加命令的顺序一致
+     */
+    public Result execute() {
+        Assert.state(!executed, "批量命令已执行，不可重复执行。");
+        executed = true;
+        if (commands.isEmpty()) {
+            return new Result(Collections.emptyList());
+        }
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                commands.forEach(command -> command.operation().accept(stringOperations));
+                // 管道中的返回值会被忽略，必须返回null
+                return null;
+            }
+        });
+        if (!writeKeys.isEmpty()) {
+            stringRedisService.afterBatch(writeKeys);
+        }
+        return new Result(mapResults(results));
+    }
+
+    /**
+     * HMSET 等返回状态的命令，lettuce 在管道中不返回结果，此时按顺序将状态命令的结果补为null；
+     * SET 在管道中返回 Boolean，不是状态命令。
+     * 驱动返回了状态命令的结果时，结果数量与命令数量相同，状态命令的结果同样为null
+     */
+    private List<Object> mapResults(List<Object> results) {
+        int statusCount = (int) commands.stream().filter(Command::statusReply).count();
+        boolean statusIncluded = results.size() == commands.size();
+        if (!statusIncluded && results.size() != commands.size() - statusCount) {
+            throw new IllegalStateException("批量命令的结果数量与命令数量不一致，命令数量：" + commands.size()
+                    + "，结果数量：" + results.size());
+        }
+        List<Object> mapped = new ArrayList<>(commands.size());
+        int index = 0;
+        for (Command command : commands) {
+            if (command.statusReply() && !statusIncluded) {
+                mapped.add(null);
+                continue;
+            }
+            Object value = results.get(index++);
+            mapped.add(command.statusReply() ? null : command.mapper().apply(value));
+        }
+        return mapped;
+    }
+
+    private RedisBatch add(Consumer<RedisOperations<String, String>> operation, boolean statusReply) {
+        return add(operation, statusReply, Function.identity());
+    }
+
+    private RedisBatch add(Consumer<RedisOperations<String, String>> operation, boolean statusReply,
+                           Function<Object, Object> mapper) {
+        Assert.state(!executed, "批量命令已执行，不可继续添加命令。");
+        commands.add(new Command(operation, statusReply, mapper));
+        return this;
+    }
+
+    /**
+     * 记录的命令
+     *
+     * @param operation   在管道中执行的操作
+     * @param statusReply 是否为管道中可能不返回结果的状态命令
+     * @param mapper      结果的转换方式
+     */
+    private record Command(Consumer<RedisOperations<String, String>> operation, boolean statusReply,
+                           Function<Object, Object> mapper) {
+    }
+
+    /**
+     * 批量命令的结果
+     */
+    public static class Result {
+
+        private final List<Object> values;
+
+        private Result(List<Object> values) {
+            this.values = values;
+        }
+
+        /**
+         * 获取第几个命令的结果，类型见添加命令的方法说明
+         *
+         * @param index 下标，从0开始
+         * @param <T>   结果类型
+         * @return 命令的结果
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(int index) {
+            return (T) values.get(index);
+        }
+
+        /**
+         * 获取第几个命令的结果并校验类型
+         *
+         * @param index 下标，从0开始
+         * @param type  结果类型
+         * @param <T>   结果类型
+         * @return 命令的结果
+         */
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values.get(index));
+        }
+
+        /**
+         * 第几个命令的结果是否为 Boolean.TRUE
+         *
+         * @param index 下标，从0开始
+         * @return boolean
+         */
+        public boolean isTrue(int index) {
+            return Objects.equals(Boolean.TRUE, values.get(index));
+        }
+
+        public int size() {
+            return values.size();
+        }
+
+        /**
+         * 所有命令的结果
+         *
+         * @return 不可修改的集合
+         */
+        public List<Object> all() {
+            return Collections.unmodifiableList(values);
+        }
+    }
+}
@@ -23,6 +23,16 @@ public class RedisConstant {
      */
     public static final long NOT_EXPIRE = -1;
 
+    /**
+     * SCAN 每次遍历的默认数量
+     */
+    public static final int DEFAULT_SCAN_COUNT = 1000;
+
+    /**
+     * UNLINK 每批删除的默认数量
+     */
+    public static final int DEFAULT_UNLINK_BATCH_SIZE = 500;
+
     /**
      * 空字符串
      */
@@ -5,13 +5,21 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
 import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 存储存字符传的redis工具类，
@@ -21,6 +29,7 @@ public class StringRedisService {
 
     private final ObjectMapper objectMapper;
     private final RedisTemplate<String, String> redisTemplate;
+    private int scanCount = RedisConstant.DEFAULT_SCAN_COUNT;
 
     public ObjectMapper getObjectMapper() {
         return objectMapper;
@@ -143,11 +152,11 @@ public class StringRedisService {
      * @return object
      */
     public String strGet(String key, long expire, TimeUnit timeUnit) {
-        String value = this.getValueOpr().get(key);
-        if (!Objects.equals(expire, RedisConstant.NOT_EXPIRE)) {
-            this.setExpire(key, expire, timeUnit == null ? TimeUnit.SECONDS : timeUnit);
+        if (Objects.equals(expire, RedisConstant.NOT_EXPIRE)) {
+            return this.getValueOpr().get(key);
         }
-        return value;
+        // 获取值与续期在同一个管道中发送
+        return this.batch().strGet(key).expire(key, expire, timeUnit).execute().get(0);
     }
 
     /**
@@ -171,13 +180,134 @@ public class StringRedisService {
      * @return object
      */
     public <T> T strGet(String key, Class<T> clazz, long expire, TimeUnit timeUnit) {
-        String value = this.getValueOpr().get(key);
-        if (!Objects.equals(expire, RedisConstant.NOT_EXPIRE)) {
-            this.setExpire(key, expire, timeUnit == null ? TimeUnit.SECONDS : timeUnit);
-        }
+        String value = this.strGet(key, expire, timeUnit);
         return value == null ? null : fromJson(value, clazz);
     }
 
+    /**
+     * String 设置值，对象由 jackson 直接序列化为UTF-8字节后写入链接，不经过 String 中转
+     * <p>
+     * 写入的数据与 {@link #strSet(String, Object, long, TimeUnit)} 相同，两种方式写入的数据可以互相读取
+     *
+     * @param key      key
+     * @param value    value
+     * @param expire   expire，{@link RedisConstant#NOT_EXPIRE} 时不设置过期时间
+     * @param timeUnit 时间单位
+     */
+    public <T> void jsonSet(String key, T value, long expire, TimeUnit timeUnit) {
+        byte[] rawKey = this.rawKey(key);
+        byte[] rawValue = this.toJsonBytes(value);
+        Expiration expiration = Objects.equals(expire, RedisConstant.NOT_EXPIRE)
+                ? Expiration.persistent()
+                : Expiration.from(expire, timeUnit == null ? TimeUnit.SECONDS : timeUnit);
+        this.currentRestTemplate().execute((RedisCallback<Boolean>) connection ->
+                connection.stringCommands().set(rawKey, rawValue, expiration, RedisStringCommands.SetOption.upsert()));
+    }
+
+    /**
+     * String 设置值，不设置过期时间，见 {@link #jsonSet(String, Object, long, TimeUnit)}
+     *
+     * @param key   key
+     * @param value value
+     */
+    public <T> void jsonSet(String key, T value) {
+        this.jsonSet(key, value, RedisConstant.NOT_EXPIRE, TimeUnit.SECONDS);
+    }
+
+    /**
+     * String 获取值，由 jackson 直接从链接返回的字节中解析，不经过 String 中转
+     *
+     * @param key   key
+     * @param clazz clazz
+     * @return 不存在或无法解析时为null
+     */
+    public <T> T jsonGet(String key, Class<T> clazz) {
+        byte[] rawKey = this.rawKey(key);
+        byte[] rawValue = this.currentRestTemplate().execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(rawKey));
+        return this.fromJsonBytes(rawValue, clazz);
+    }
+
+    /**
+     * String 批量获取值，使用 MGET 一次获取
+     *
+     * @param keys key
+     * @return 与key的顺序一致，不存在的key对应的值为null
+     */
+    public List<String> strMultiGet(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> values = this.getValueOpr().multiGet(keys);
+        return values == null ? new ArrayList<>() : values;
+    }
+
+    /**
+     * String 批量获取值，使用 MGET 一次获取
+     *
+     * @param keys  key
+     * @param clazz clazz
+     * @return 与key的顺序一致，不存在的key对应的值为null
+     */
+    public <T> List<T> strMultiGet(Collection<String> keys, Class<T> clazz) {
+        List<String> values = this.strMultiGet(keys);
+        List<T> result = new ArrayList<>(values.size());
+        for (String value : values) {
+            result.add(value == null ? null : fromJson(value, clazz));
+        }
+        return result;
+    }
+
+    /**
+     * String 批量设置值，使用 MSET 一次设置，不设置过期时间
+     *
+     * @param map key -> value
+     */
+    public void strMultiSet(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        this.getValueOpr().multiSet(map);
+    }
+
+    /**
+     * String 批量设置值，MSET 不支持过期时间，使用管道逐个 SET 后一次发送
+     *
+     * @param map      key -> value
+     * @param expire   expire
+     * @param timeUnit 时间单位
+     */
+    public void strMultiSet(Map<String, String> map, long expire, TimeUnit timeUnit) {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        RedisBatch batch = this.batch();
+        map.forEach((key, value) -> batch.strSet(key, value, expire, timeUnit == null ? TimeUnit.SECONDS : timeUnit));
+        batch.execute();
+    }
+
+    /**
+     * 创建批量命令，添加的命令在执行时通过管道一次发送
+     *
+     * @return RedisBatch
+     */
+    public RedisBatch batch() {
+        return new RedisBatch(this.currentRestTemplate(), this);
+    }
+
+    /**
+     * 执行lua脚本，脚本内的多个命令在redis中原子执行，只需要一次往返
+     *
+     * @param script 脚本，优先使用 EVALSHA 执行，redis中不存在时自动使用 EVAL
+     * @param keys   脚本中的 KEYS
+     * @param args   脚本中的 ARGV
+     * @param <T>    返回值类型
+     * @return 脚本的返回值
+     */
+    public <T> T executeScript(RedisScript<T> script, List<String> keys, Object... args) {
+        return this.currentRestTemplate().execute(script, keys, args);
+    }
+
     /**
      * String 获取值
      *
@@ -870,6 +1000,55 @@ public class StringRedisService {
         }
     }
 
+    /**
+     * Object转成JSON数据的UTF-8字节，与 {@link #toJson(Object)} 的结果一致
+     *
+     * @param object object
+     * @param <T>    object预期类型
+     * @return object
+     */
+    public <T> byte[] toJsonBytes(T object) {
+        if (object == null) {
+            return new byte[0];
+        }
+        if (object instanceof Integer || object instanceof Long || object instanceof Float || object instanceof Double
+                || object instanceof Boolean || object instanceof String) {
+            return String.valueOf(object).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(object);
+        } catch (JsonProcessingException e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * JSON数据的UTF-8字节，转成Object
+     *
+     * @param json  json字节
+     * @param clazz 预期类型
+     * @param <T>   泛型
+     * @return object
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T fromJsonBytes(byte[] json, Class<T> clazz) {
+        if (json == null || json.length == 0 || clazz == null) {
+            return null;
+        }
+        // 与 toJson 一致，字符串直接保存，不是json格式
+        if (clazz == String.class) {
+            return (T) new String(json, StandardCharsets.UTF_8);
+        }
+        try {
+            return objectMapper.readValue(json, clazz);
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error(e.getMessage(), e);
+            }
+            return null;
+        }
+    }
+
     /**
      * JSON数据，转成 List<Object>
      *
@@ -899,28 +1078,124 @@ public class StringRedisService {
     }
 
     /**
-     * 根据一个前缀来删除所有匹配的key
+     * 根据一个前缀来删除所有匹配的key，使用 SCAN 分批查找、UNLINK 分批删除，不会长时间阻塞redis
      *
      * @param keyPrefix Prefix 前缀
      * @return object 删除的数量
      */
     public int deleteKeysWithPrefix(String keyPrefix) {
-        Set<String> keys = this.currentRestTemplate().keys(keyPrefix + '*');
-        if (keys == null || keys.isEmpty()) {
-            return 0;
+        return (int) this.unlinkKeys(keyPrefix + '*', this.scanCount, RedisConstant.DEFAULT_UNLINK_BATCH_SIZE, null);
+    }
+
+    /**
+     * 根据表达式删除所有匹配的key
+     * <p>
+     * 使用 SCAN 游标分批查找，每凑满 batchSize 个key执行一次 UNLINK，内存中最多只保留一批key；
+     * UNLINK 在redis的后台线程中回收内存，不阻塞其他命令。SCAN 过程中新增的key不保证被删除。
+     *
+     * @param pattern   表达式
+     * @param count     SCAN 每次遍历的数量
+     * @param batchSize 每批删除的数量
+     * @param progress  每删除一批后回调，参数为已删除的总数，可为空
+     * @return 删除的数量
+     */
+    public long unlinkKeys(String pattern, int count, int batchSize, LongConsumer progress) {
+        Assert.isTrue(batchSize > 0, "每批删除的数量必须大于0。");
+        long deleted = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Cursor<String> cursor = this.scanCursor(pattern, count)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    deleted += this.unlink(batch, deleted, progress);
+                }
+            }
         }
-        this.currentRestTemplate().delete(keys);
-        return keys.size();
+        if (!batch.isEmpty()) {
+            deleted += this.unlink(batch, deleted, progress);
+        }
+        return deleted;
     }
 
     /**
-     * 根据表达式获取匹配的所有key
+     * 根据表达式获取匹配的所有key，使用 SCAN 分批遍历，不会长时间阻塞redis；匹配的key较多时使用 {@link #scan(String)}
      *
      * @param pattern 表达式
      * @return object 匹配的所有key
      */
     public Set<String> keys(String pattern) {
-        return this.currentRestTemplate().keys(pattern);
+        try (Stream<String> keys = this.scan(pattern)) {
+            return keys.collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * 根据表达式遍历匹配的key，每次 SCAN 遍历 life.redis.scan-count 个key
+     *
+     * @param pattern 表达式
+     * @return 惰性加载的key，使用后需要关闭
+     * @see #scan(String, int)
+     */
+    public Stream<String> scan(String pattern) {
+        return this.scan(pattern, this.scanCount);
+    }
+
+    /**
+     * 根据表达式遍历匹配的key，读取时才通过游标分批获取，同一个key可能返回多次
+     *
+     * @param pattern 表达式
+     * @param count   SCAN 每次遍历的数量
+     * @return 惰性加载的key，使用后需要关闭，例如 try-with-resources
+     */
+    public Stream<String> scan(String pattern, int count) {
+        Cursor<String> cursor = this.scanCursor(pattern, count);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * 根据表达式获取游标，游标占用一个redis链接，遍历结束后需要关闭
+     *
+     * @param pattern 表达式
+     * @param count   SCAN 每次遍历的数量
+     * @return Cursor
+     */
+    public Cursor<String> scanCursor(String pattern, int count) {
+        Assert.isTrue(count > 0, "SCAN 每次遍历的数量必须大于0。");
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+        return this.currentRestTemplate().scan(options);
+    }
+
+    /**
+     * SCAN 每次遍历的数量，默认 {@link RedisConstant#DEFAULT_SCAN_COUNT}
+     *
+     * @param scanCount 数量
+     */
+    public void setScanCount(int scanCount) {
+        Assert.isTrue(scanCount > 0, "SCAN 每次遍历的数量必须大于0。");
+        this.scanCount = scanCount;
+    }
+
+    /**
+     * 批量命令执行后回调，子类可用于处理写入的key，例如清理本地缓存
+     *
+     * @param writeKeys 批量命令中写入或删除的key
+     */
+    protected void afterBatch(Collection<String> writeKeys) {
+    }
+
+    private long unlink(List<String> batch, long deleted, LongConsumer progress) {
+        Long count = this.currentRestTemplate().unlink(batch);
+        long unlinked = count == null ? 0 : count;
+        batch.clear();
+        if (progress != null) {
+            progress.accept(deleted + unlinked);
+        }
+        return unlinked;
+    }
+
+    private byte[] rawKey(String key) {
+        return this.currentRestTemplate().getStringSerializer().serialize(key);
     }
 
     private ValueOperations<String, String> getValueOpr() {
@@ -0,0 +1,59 @@
+package com.authorization.redis.start.test;
+
+import com.authorization.redis.start.service.RedisBatch;
+import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.utils.json.JsonHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量命令的结果与命令的对应关系校验：同一批中混合返回结果的命令与管道中不返回结果的状态命令(HMSET)，
+ * 每个命令的结果应与添加命令的顺序一致。
+ * <p>
+ * 需要本地启动redis，默认连接 127.0.0.1:7777(与 application.properties 相同)，可通过参数指定：host port
+ */
+@Slf4j
+public class RedisBatchTest {
+
+    private static final String KEY_PREFIX = "life-redis-batch-test:";
+
+    public static void main(String[] args) {
+        LettuceConnectionFactory connectionFactory = RedisHarness.connect(args);
+        StringRedisService stringRedisService = new StringRedisService(new StringRedisTemplate(connectionFactory), JsonHelper.getObjectMapper());
+        String strKey = KEY_PREFIX + "str";
+        String expireKey = KEY_PREFIX + "str-expire";
+        String hashKey = KEY_PREFIX + "hash";
+
+        RedisBatch.Result result = stringRedisService.batch()
+                .strSet(strKey, "value")
+                .hashPutAll(hashKey, Map.of("field1", "value1", "field2", "value2"))
+                .strSet(expireKey, "value", 1, TimeUnit.MINUTES)
+                .strGet(strKey)
+                .hashGetAll(hashKey)
+                .hashGet(hashKey, "field1")
+                .delKey(strKey, expireKey, hashKey)
+                .execute();
+        log.info("results: {}", result.all());
+        connectionFactory.destroy();
+
+        check(result.size() == 7, "结果数量", result.size());
+        check(result.isTrue(0), "strSet", result.get(0));
+        check(result.get(1) == null, "hashPutAll", result.get(1));
+        check(result.isTrue(2), "strSet expire", result.get(2));
+        check(Objects.equals("value", result.get(3)), "strGet", result.get(3));
+        check(Objects.equals(Map.of("field1", "value1", "field2", "value2"), result.get(4)), "hashGetAll", result.get(4));
+        check(Objects.equals("value1", result.get(5)), "hashGet", result.get(5));
+        check(Objects.equals(3L, result.get(6)), "delKey", result.get(6));
+    }
+
+    private static void check(boolean expected, String command, Object actual) {
+        if (!expected) {
+            throw new IllegalStateException("批量命令的结果与预期不一致：" + command + "，实际：" + actual);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.authorization.redis.start.test;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Properties;
+
+/**
+ * 各模块中连接本地redis的测试类的公共部分。
+ * <p>
+ * 测试类的前两个参数为redis的 host port，默认连接 127.0.0.1:7777(与各服务的配置文件相同)，其余参数由测试类自行解析。
+ */
+public final class RedisHarness {
+
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final int DEFAULT_PORT = 7777;
+
+    private RedisHarness() {
+    }
+
+    /**
+     * 根据参数 host port 创建并初始化连接工厂，使用后需要调用 destroy
+     *
+     * @param args main方法的参数
+     * @return LettuceConnectionFactory
+     */
+    public static LettuceConnectionFactory connect(String[] args) {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                args.length > 0 ? args[0] : DEFAULT_HOST, intArg(args, 1, DEFAULT_PORT));
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    /**
+     * 获取整数参数
+     *
+     * @param args         main方法的参数
+     * @param index        参数的位置
+     * @param defaultValue 未指定时的默认值
+     * @return int
+     */
+    public static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    /**
+     * redis启动以来处理的命令总数，前后两次的差值即为期间处理的命令数
+     */
+    public static long totalCommands(RedisTemplate<String, String> redisTemplate) {
+        return infoLong(redisTemplate, "stats", "total_commands_processed");
+    }
+
+    /**
+     * redis已使用的内存，单位：字节
+     */
+    public static long usedMemory(RedisTemplate<String, String> redisTemplate) {
+        return infoLong(redisTemplate, "memory", "used_memory");
+    }
+
+    private static long infoLong(RedisTemplate<String, String> redisTemplate, String section, String property) {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection -> connection.serverCommands().info(section));
+        return info == null ? 0 : Long.parseLong(info.getProperty(property, "0"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.authorization.redis.start.test;
+
+import com.authorization.redis.start.service.RedisConstant;
+import com.authorization.redis.start.service.StringRedisService;
+import com.authorization.utils.json.JsonHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * SCAN + UNLINK 分批删除大量key的校验：删除过程中应用的堆内存保持平稳，redis仍可及时响应其他命令。
+ * <p>
+ * 需要本地启动redis，默认连接 127.0.0.1:7777(与 application.properties 相同)，可通过参数指定：host port keyCount
+ * <p>
+ * 写入 keyCount 个测试key后删除，每删除一批记录一次堆内存，同时另起线程持续 PING 记录最大响应时长。
+ * 堆内存的增长超过 {@link #MAX_HEAP_GROWTH} 或未全部删除时抛出异常。
+ */
+@Slf4j
+public class ScanUnlinkTest {
+
+    private static final String KEY_PREFIX = "life-scan-unlink-test:";
+    private static final int WRITE_BATCH_SIZE = 10_000;
+    /**
+     * 允许的堆内存增长，一次性加载100万个key约需要100MB
+     */
+    private static final long MAX_HEAP_GROWTH = 32 * 1024 * 1024L;
+
+    public static void main(String[] args) throws Exception {
+        LettuceConnectionFactory connectionFactory = RedisHarness.connect(args);
+        int keyCount = RedisHarness.intArg(args, 2, 1_000_000);
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        StringRedisService stringRedisService = new StringRedisService(redisTemplate, JsonHelper.getObjectMapper());
+
+        write(stringRedisService, keyCount);
+        long redisMemoryBefore = RedisHarness.usedMemory(redisTemplate);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        AtomicLong maxHeap = new AtomicLong(heapBefore);
+        AtomicLong maxPingMicros = new AtomicLong();
+        Thread pinger = startPinger(redisTemplate, maxPingMicros);
+
+        long start = System.nanoTime();
+        long deleted = stringRedisService.unlinkKeys(KEY_PREFIX + '*', RedisConstant.DEFAULT_SCAN_COUNT,
+                RedisConstant.DEFAULT_UNLINK_BATCH_SIZE, total -> {
+                    maxHeap.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                    if (total % 100_000 < RedisConstant.DEFAULT_UNLINK_BATCH_SIZE) {
+                        log.info("deleted: {}, heap: {}MB", total, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+                    }
+                });
+        long elapsed = System.nanoTime() - start;
+        pinger.interrupt();
+        pinger.join();
+
+        long remaining;
+        try (Stream<String> keys = stringRedisService.scan(KEY_PREFIX + '*')) {
+            remaining = keys.count();
+        }
+        long heapGrowth = maxHeap.get() - heapBefore;
+        log.info("keys: {}, deleted: {}, remaining: {}, elapsed: {}ms", keyCount, deleted, remaining,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        log.info("heap growth: {}KB, redis used_memory: {}MB -> {}MB, max ping: {}us", heapGrowth >> 10,
+                redisMemoryBefore >> 20, RedisHarness.usedMemory(redisTemplate) >> 20, maxPingMicros.get());
+        connectionFactory.destroy();
+
+        if (deleted != keyCount || remaining != 0) {
+            throw new IllegalStateException("未删除全部的测试key，删除数量：" + deleted + "，剩余数量：" + remaining);
+        }
+        if (heapGrowth > MAX_HEAP_GROWTH) {
+            throw new IllegalStateException("删除过程中堆内存增长过多：" + (heapGrowth >> 10) + "KB");
+        }
+    }
+
+    private static void write(StringRedisService stringRedisService, int keyCount) {
+        Map<String, String> batch = new HashMap<>(WRITE_BATCH_SIZE * 2);
+        for (int i = 0; i < keyCount; i++) {
+            batch.put(KEY_PREFIX + i, String.valueOf(i));
+            if (batch.size() >= WRITE_BATCH_SIZE) {
+                stringRedisService.strMultiSet(batch);
+                batch.clear();
+            }
+        }
+        stringRedisService.strMultiSet(batch);
+        log.info("write {} keys", keyCount);
+    }
+
+    private static Thread startPinger(StringRedisTemplate redisTemplate, AtomicLong maxPingMicros) {
+        Thread pinger = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long start = System.nanoTime();
+                redisTemplate.execute((RedisCallback<String>) connection -> connection.ping());
+                maxPingMicros.accumulateAndGet(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "scan-unlink-pinger");
+        pinger.setDaemon(true);
+        pinger.start();
+        return pinger;
+    }
+}
@@ -1,13 +1,8 @@
 package com.authorization.system.log;
 
 import cn.hutool.core.util.ArrayUtil;
-import cn.hutool.json.JSONUtil;
 import com.authorization.common.util.RequestUtils;
 import com.google.common.collect.Maps;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
@@ -15,14 +10,19 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -46,6 +46,9 @@ import java.util.Objects;
 @Component
 public class LogAopAdvice {
 
+    @Autowired
+    private LogEventDispatcher logEventDispatcher;
+
     /**
      * 控制层的切点-拦截包或者子包中定义的方法，即 拦截 controller 包或者子包中定义的所有方法
      */
@@ -75,47 +78,58 @@ public class LogAopAdvice {
     }
 
     /**
-     * 环绕通知
+     * 环绕通知，采样命中后在请求线程中采集日志事件并序列化参数及返回值，输出由{@link LogEventDispatcher}在后台线程中完成
      */
     @Around("pointCut()")
     public Object around(ProceedingJoinPoint point) throws Throwable {
-        long startTime = System.currentTimeMillis();
-        log.info("around advice start ...");
-        Log.LogBuilder builder = Log.builder()
-                .threadId(Long.toString(Thread.currentThread().getId()))
-                .threadName(Thread.currentThread().getName());
+        long startTime = System.nanoTime();
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = point.proceed();
+            return result;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            long timeCost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            // 异常的请求不受采样限制
+            if (Objects.nonNull(error) || logEventDispatcher.sampled()) {
+                logEventDispatcher.publish(buildEvent(point, result, error, timeCost));
+            }
+        }
+    }
+
+    private LogEvent buildEvent(ProceedingJoinPoint point, Object result, Throwable error, long timeCost) {
+        Thread thread = Thread.currentThread();
+        LogEvent.LogEventBuilder builder = LogEvent.builder()
+                .timestamp(System.currentTimeMillis())
+                .threadId(Long.toString(thread.getId()))
+                .threadName(thread.getName())
+                .classMethod(point.getSignature().getDeclaringTypeName() + "." + point.getSignature().getName())
+                .name(getAnnotationValue(point))
+                // 在请求线程中序列化，请求结束后参数或返回值被修改、关闭时不影响日志内容；超过最大长度即停止，开销有上限
+                .requestParams(logEventDispatcher.serialize(getNameAndValue(point)))
+                .result(logEventDispatcher.serialize(result))
+                .error(Objects.isNull(error) ? null : error.toString())
+                .timeCost(timeCost);
         RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
         if (Objects.nonNull(requestAttributes)) {
             HttpServletRequest request = RequestUtils.getRequest();
             builder.url(RequestUtils.getServerAndContextUrl() + request.getRequestURI())
                     .httpMethod(request.getMethod());
         }
-        getAnnotationValue(point);
-        String classMethod = String.format("%s.%s", point.getSignature().getDeclaringTypeName(), point.getSignature().getName());
-        builder.classMethod(classMethod)
-                .requestParams(getNameAndValue(point))
-                .timeCost(System.currentTimeMillis() - startTime);
-        final Log logParamsInfo = builder.build();
-        log.info("around advice params = {}", JSONUtil.toJsonStr(JSONUtil.parse(logParamsInfo), 2));
-        Object result = point.proceed();
-        builder.result(result);
-        final Log logResultInfo = builder.build();
-        log.info("around advice params and result = {}", JSONUtil.toJsonStr(logResultInfo));
-        return result;
+        return builder.build();
     }
 
     /**
      * 获取方法上注解的参数信息
      */
-    private void getAnnotationValue(ProceedingJoinPoint joinPoint) {
-        final Signature signature = joinPoint.getSignature();
-        MethodSignature methodSignature = (MethodSignature) signature;
+    private String getAnnotationValue(ProceedingJoinPoint joinPoint) {
+        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
         //日志注解
         LogAdvice logAdvice = methodSignature.getMethod().getAnnotation(LogAdvice.class);
-        if (Objects.nonNull(logAdvice)) {
-            String name = logAdvice.name();
-            log.info("before advice LogAopAno = {}", name);
-        }
+        return Objects.isNull(logAdvice) ? null : logAdvice.name();
     }
 
     /**
@@ -135,50 +149,13 @@ public class LogAopAdvice {
         }
         Map<String, Object> map = Maps.newHashMap();
         for (int i = 0; i < names.length; i++) {
+            // 请求、响应及上传文件等对象无法序列化，不记录
+            if (args[i] instanceof ServletRequest || args[i] instanceof ServletResponse || args[i] instanceof InputStreamSource) {
+                continue;
+            }
             map.put(names[i], args[i]);
         }
         return map;
     }
 
-
-    @Data
-    @Builder
-    @NoArgsConstructor
-    @AllArgsConstructor
-    private static class Log {
-        /**
-         * 线程id
-         */
-        private String threadId;
-        /**
-         * 线程名称
-         */
-        private String threadName;
-        /**
-         * url
-         */
-        private String url;
-        /**
-         * http方法 GET POST PUT DELETE PATCH
-         */
-        private String httpMethod;
-        /**
-         * 类方法
-         */
-        private String classMethod;
-        /**
-         * 请求参数
-         */
-        private Object requestParams;
-        /**
-         * 返回参数
-         */
-        private Object result;
-        /**
-         * 接口耗时
-         */
-        private Long timeCost;
-    }
-
-
 }
@@ -0,0 +1,61 @@
+package com.authorization.system.log;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 接口日志事件，在请求线程中创建后不再修改，由{@link LogEventDispatcher}在后台线程中序列化输出。
+ * <p>
+ * 请求参数及返回值在请求线程中序列化为字符串，事件不引用请求中的对象，调用方后续的修改不影响日志内容。
+ */
+@Getter
+@Builder
+public class LogEvent {
+    /**
+     * 事件发生时间，毫秒时间戳
+     */
+    private final long timestamp;
+    /**
+     * 线程id
+     */
+    private final String threadId;
+    /**
+     * 线程名称
+     */
+    private final String threadName;
+    /**
+     * url
+     */
+    private final String url;
+    /**
+     * http方法 GET POST PUT DELETE PATCH
+     */
+    private final String httpMethod;
+    /**
+     * 类方法
+     */
+    private final String classMethod;
+    /**
+     * 日志注解中的方法名
+     */
+    private final String name;
+    /**
+     * 请求参数json，输出时不再转义；超过最大长度时为截断后的json字符串
+     */
+    @JsonRawValue
+    private final String requestParams;
+    /**
+     * 返回参数json，输出时不再转义；超过最大长度时为截断后的json字符串
+     */
+    @JsonRawValue
+    private final String result;
+    /**
+     * 异常信息
+     */
+    private final String error;
+    /**
+     * 接口耗时，单位：毫秒
+     */
+    private final long timeCost;
+}
@@ -0,0 +1,216 @@
+package com.authorization.system.log;
+
+import com.authorization.utils.json.JsonHelper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 接口日志的异步输出。
+ * <p>
+ * 请求线程将参数及返回值序列化为最多 life.log.max-payload-length 个字符的json后，把只包含字符串的{@link LogEvent}
+ * 写入有界的{@link LogRingBuffer}，队列已满时丢弃并计数；
+ * 后台的单个守护线程批量读取、序列化并输出，每批合并为一条日志。丢弃数量定期以 warn 级别输出。
+ * <p>
+ * 可通过 life.log.sample-rate 配置采样比例，异常的请求不受采样限制。
+ */
+@Slf4j
+@Component
+public class LogEventDispatcher implements InitializingBean, DisposableBean {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long DROP_REPORT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * 队列容量
+     */
+    @Value("${life.log.buffer-size:8192}")
+    private int bufferSize;
+    /**
+     * 每批最多输出的数量
+     */
+    @Value("${life.log.batch-size:256}")
+    private int batchSize;
+    /**
+     * 采样比例，0-1之间，1为全部输出
+     */
+    @Value("${life.log.sample-rate:1.0}")
+    private double sampleRate;
+    /**
+     * 请求参数及返回值序列化后的最大长度，超过时截断
+     */
+    @Value("${life.log.max-payload-length:2048}")
+    private int maxPayloadLength;
+
+    private final LongAdder dropped = new LongAdder();
+    private LogRingBuffer<LogEvent> buffer;
+    private ObjectWriter writer;
+    private Thread consumer;
+    private volatile boolean running;
+
+    @Override
+    public void afterPropertiesSet() {
+        buffer = new LogRingBuffer<>(bufferSize);
+        writer = JsonHelper.getObjectMapper().writer();
+        running = true;
+        consumer = new Thread(this::consume, "log-event-dispatcher");
+        consumer.setDaemon(true);
+        consumer.start();
+        log.info("Init log event dispatcher, capacity: {}, batchSize: {}, sampleRate: {}", buffer.capacity(), batchSize, sampleRate);
+    }
+
+    /**
+     * 本次请求是否需要记录日志
+     *
+     * @return 未命中采样时为false
+     */
+    public boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * 在请求线程中将请求参数或返回值序列化为json，写入超过最大长度后立即停止序列化，请求线程的开销与返回值的大小无关。
+     * <p>
+     * 返回值总是合法的json，由{@link LogEvent}原样输出：未截断时为序列化的结果；截断或序列化失败时为json字符串。
+     *
+     * @param value 请求参数或返回值
+     * @return json
+     */
+    public String serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        BoundedWriter out = new BoundedWriter(maxPayloadLength);
+        try {
+            writer.writeValue(out, value);
+            return out.toString();
+        } catch (Exception e) {
+            String text = out.isTruncated() ? out + "...(truncated)" : "serialize failed: " + e.getMessage();
+            try {
+                return writer.writeValueAsString(text);
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 提交日志事件，不阻塞调用线程
+     *
+     * @param event 日志事件
+     */
+    public void publish(LogEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 因队列已满而丢弃的日志数量
+     *
+     * @return 丢弃的数量
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    private void consume() {
+        List<LogEvent> batch = new ArrayList<>(batchSize);
+        long reportedDropped = 0;
+        long lastReportTime = System.currentTimeMillis();
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else {
+                emit(batch);
+                batch.clear();
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastReportTime >= DROP_REPORT_INTERVAL_MILLIS) {
+                long totalDropped = dropped.sum();
+                if (totalDropped > reportedDropped) {
+                    log.warn("接口日志队列已满, 最近丢弃数量: {}, 累计丢弃数量: {}", totalDropped - reportedDropped, totalDropped);
+                    reportedDropped = totalDropped;
+                }
+                lastReportTime = now;
+            }
+        }
+    }
+
+    private void emit(List<LogEvent> batch) {
+        StringBuilder builder = new StringBuilder(batch.size() * 256);
+        for (LogEvent event : batch) {
+            builder.append(System.lineSeparator());
+            try {
+                builder.append(writer.writeValueAsString(event));
+            } catch (Exception e) {
+                // 序列化失败时，只输出基本信息
+                builder.append(event.getClassMethod()).append(" timeCost=").append(event.getTimeCost())
+                        .append(" serialize failed: ").append(e.getMessage());
+            }
+        }
+        log.info("around advice events = {}", builder);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * 写入超过最大长度时抛出异常的Writer，用于中断序列化
+     */
+    private static final class BoundedWriter extends Writer {
+
+        private final StringBuilder builder;
+        private final int maxLength;
+        private boolean truncated;
+
+        private BoundedWriter(int maxLength) {
+            this.builder = new StringBuilder(Math.min(maxLength, 256));
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int remaining = maxLength - builder.length();
+            if (length > remaining) {
+                builder.append(chars, offset, Math.max(0, remaining));
+                truncated = true;
+                throw new IOException("payload exceeds " + maxLength + " chars");
+            }
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.authorization.system.log;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界的无锁环形队列，多个生产者、单个消费者。
+ * <p>
+ * 生产者通过CAS占用写入位置，队列已满时直接返回false，不阻塞请求线程；消费者只能有一个线程。
+ *
+ * @param <E> 元素类型
+ */
+public class LogRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    /**
+     * 下一个写入位置，生产者之间通过CAS竞争
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * 下一个读取位置，只有消费者线程修改
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 写入元素
+     *
+     * @param element 元素
+     * @return 队列已满时返回false
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            if (position - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                slots.lazySet((int) position & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 读取最多maxElements个元素，只能由消费者线程调用
+     *
+     * @param target      读取到的元素
+     * @param maxElements 最多读取的数量
+     * @return 读取的数量
+     */
+    public int drainTo(List<E> target, int maxElements) {
+        long position = head.get();
+        int count = 0;
+        while (count < maxElements) {
+            int index = (int) position & mask;
+            E element = slots.get(index);
+            // 位置已被占用但生产者尚未写入完成时为null，下次再读取
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(element);
+            position++;
+            count++;
+        }
+        head.lazySet(position);
+        return count;
+    }
+
+    /**
+     * 当前队列中的元素数量，仅供监控使用
+     *
+     * @return 元素数量
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -1,8 +1,199 @@
 package com.authorization.system.test_redis;
 
-import org.springframework.stereotype.Service;
+import com.authorization.redis.start.lock.RedisLock;
+import com.authorization.redis.start.lock.RedisLockRegistry;
+import com.authorization.redis.start.test.RedisHarness;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
-@Service
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * redis分布式锁的竞争测试：多个线程竞争同一个锁，在锁内以 GET + SET 的方式累加计数器，结束后计数器应等于累加的总次数。
+ * <p>
+ * 对比三种方式的吞吐量、获取锁的等待时长及redis处理的命令数：
+ * 不可重入的锁、可重入的锁(每次重入一次)、SET NX PX 失败后休眠重试的轮询方式。
+ * <p>
+ * 需要本地启动redis，默认连接 127.0.0.1:7777(与 application.properties 相同)，可通过参数指定：host port threads
+ */
+@Slf4j
 public class RedisLockTest {
 
+    private static final String LOCK_NAME = "redis-lock-test";
+    private static final String COUNTER_KEY = "redis-lock-test:counter";
+    private static final int ROUNDS = 200;
+    private static final long SPIN_SLEEP_MILLIS = 5;
+
+    public static void main(String[] args) throws Exception {
+        LettuceConnectionFactory connectionFactory = RedisHarness.connect(args);
+        int threads = RedisHarness.intArg(args, 2, 32);
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisLockRegistry registry = new RedisLockRegistry(redisTemplate, 30_000);
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(registry, registry.topic());
+        container.afterPropertiesSet();
+        container.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        RedisLock lock = registry.getLock(LOCK_NAME);
+        RedisLock reentrantLock = registry.getReentrantLock(LOCK_NAME + "-reentrant");
+        AtomicLong spinAttempts = new AtomicLong();
+
+        run("lock", executor, threads, redisTemplate, () -> {
+            lock.lock();
+            try {
+                increment(redisTemplate);
+            } finally {
+                lock.unlock();
+            }
+        });
+        run("reentrant-lock", executor, threads, redisTemplate, () -> {
+            reentrantLock.lock();
+            try {
+                reentrantLock.lock();
+                try {
+                    increment(redisTemplate);
+                } finally {
+                    reentrantLock.unlock();
+                }
+            } finally {
+                reentrantLock.unlock();
+            }
+        });
+        run("spin", executor, threads, redisTemplate, () -> {
+            String token = Thread.currentThread().getName();
+            String key = RedisLockRegistry.KEY_PREFIX + LOCK_NAME + "-spin";
+            while (true) {
+                spinAttempts.incrementAndGet();
+                if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, 30, TimeUnit.SECONDS))) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(SPIN_SLEEP_MILLIS);
+            }
+            try {
+                increment(redisTemplate);
+            } finally {
+                redisTemplate.delete(key);
+            }
+        });
+        log.info("[spin] SET NX attempts: {}", spinAttempts.get());
+
+        // 同一个线程重复获取不可重入的锁时失败
+        lock.lock();
+        try {
+            log.info("non-reentrant tryLock by holder: {}", lock.tryLock());
+        } finally {
+            lock.unlock();
+        }
+
+        checkSharedLeases(redisTemplate, container);
+
+        executor.shutdown();
+        container.destroy();
+        registry.destroy();
+        connectionFactory.destroy();
+    }
+
+    private static void run(String name, ExecutorService executor, int threads, StringRedisTemplate redisTemplate,
+                            LockedTask task) throws Exception {
+        redisTemplate.delete(COUNTER_KEY);
+        long commandsBefore = RedisHarness.totalCommands(redisTemplate);
+        List<Future<long[]>> futures = new ArrayList<>(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                long[] waits = new long[ROUNDS];
+                for (int round = 0; round < ROUNDS; round++) {
+                    long begin = System.nanoTime();
+                    task.run();
+                    waits[round] = System.nanoTime() - begin;
+                }
+                return waits;
+            }));
+        }
+        long[] waits = new long[threads * ROUNDS];
+        int index = 0;
+        for (Future<long[]> future : futures) {
+            long[] threadWaits = future.get();
+            System.arraycopy(threadWaits, 0, waits, index, threadWaits.length);
+            index += threadWaits.length;
+        }
+        long elapsed = System.nanoTime() - start;
+        long commands = RedisHarness.totalCommands(redisTemplate) - commandsBefore;
+        Arrays.sort(waits);
+        String counter = redisTemplate.opsForValue().get(COUNTER_KEY);
+        log.info("[{}] threads: {}, rounds: {}, throughput: {} lock/s, p50: {} us, p99: {} us, redis commands: {}, counter: {}",
+                name, threads, ROUNDS, (long) waits.length * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                TimeUnit.NANOSECONDS.toMicros(waits[waits.length / 2]),
+                TimeUnit.NANOSECONDS.toMicros(waits[waits.length * 99 / 100]), commands, counter);
+        if (!String.valueOf(waits.length).equals(counter)) {
+            throw new IllegalStateException("[" + name + "] 计数器的值不正确，预期：" + waits.length + "，实际：" + counter);
+        }
+    }
+
+    /**
+     * 同名的锁对象共用租期：通过另一个对象重复获取时失败；通过一个对象获取、另一个对象释放后停止续期，
+     * 之后指定租期获取的锁在租期结束后过期，不会被之前的看门狗续期
+     */
+    private static void checkSharedLeases(StringRedisTemplate redisTemplate, RedisMessageListenerContainer container) throws Exception {
+        String name = LOCK_NAME + "-shared";
+        RedisLockRegistry registry = new RedisLockRegistry(redisTemplate, 300);
+        container.addMessageListener(registry, registry.topic());
+        try {
+            registry.getLock(name).lock();
+            try {
+                if (registry.getLock(name).tryLock()) {
+                    throw new IllegalStateException("通过另一个锁对象重复获取了不可重入的锁");
+                }
+                boolean rejected = false;
+                try {
+                    registry.getLock(name).tryLock(100, TimeUnit.MILLISECONDS);
+                } catch (IllegalStateException e) {
+                    rejected = true;
+                    log.info("non-reentrant lock by another instance: {}", e.getMessage());
+                }
+                if (!rejected) {
+                    throw new IllegalStateException("通过另一个锁对象重复获取不可重入的锁时未失败");
+                }
+            } finally {
+                registry.getLock(name).unlock();
+            }
+            if (!registry.getLock(name).tryLock(0, 500, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("释放后未能获取锁");
+            }
+            TimeUnit.MILLISECONDS.sleep(1000);
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(RedisLockRegistry.KEY_PREFIX + name))) {
+                throw new IllegalStateException("指定租期的锁在租期结束后仍未过期，被之前的看门狗续期");
+            }
+            log.info("[shared-leases] passed");
+        } finally {
+            container.removeMessageListener(registry);
+            registry.destroy();
+        }
+    }
+
+    /**
+     * 非原子的累加，只有在锁内执行才能保证结果正确
+     */
+    private static void increment(StringRedisTemplate redisTemplate) {
+        String value = redisTemplate.opsForValue().get(COUNTER_KEY);
+        long counter = value == null ? 0 : Long.parseLong(value);
+        redisTemplate.opsForValue().set(COUNTER_KEY, String.valueOf(counter + 1));
+    }
+
+    @FunctionalInterface
+    private interface LockedTask {
+
+        void run() throws Exception;
+    }
 }